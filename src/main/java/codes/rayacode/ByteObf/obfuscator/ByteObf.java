@@ -18,51 +18,61 @@
 
 package codes.rayacode.ByteObf.obfuscator;
 
+import codes.rayacode.ByteObf.obfuscator.hierarchy.ClassIndex;
+import codes.rayacode.ByteObf.obfuscator.hierarchy.HierarchyResolver;
+import codes.rayacode.ByteObf.obfuscator.hierarchy.LibraryIndex;
+import codes.rayacode.ByteObf.obfuscator.io.JarReader;
+import codes.rayacode.ByteObf.obfuscator.io.JarWriter;
 import codes.rayacode.ByteObf.obfuscator.transformer.ClassTransformer;
 import codes.rayacode.ByteObf.obfuscator.transformer.TransformManager;
-import codes.rayacode.ByteObf.obfuscator.utils.StreamUtils;
+import codes.rayacode.ByteObf.obfuscator.utils.ExclusionMatcher;
 import codes.rayacode.ByteObf.obfuscator.utils.StringUtils;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfConfig;
+import codes.rayacode.ByteObf.obfuscator.utils.model.ClassWrapper;
 import codes.rayacode.ByteObf.obfuscator.utils.model.CustomClassWriter;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ResourceWrapper;
+import codes.rayacode.ByteObf.obfuscator.utils.model.SymbolTable;
 import javafx.concurrent.Task;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.tree.ClassNode;
 
 import java.io.*;
-import java.net.URL;
-import java.net.URLClassLoader;
 import java.nio.file.Files;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.jar.JarEntry;
-import java.util.jar.JarOutputStream;
 import java.util.stream.Collectors;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
 
 public class ByteObf extends Task<Void> {
 
     private final ByteObfConfig config;
     private final Consumer<String> logConsumer;
     private final Consumer<String> errConsumer;
+    private final ExclusionMatcher exclusions;
+    private final SymbolTable symbols = new SymbolTable();
 
     public ByteObf(ByteObfConfig config, Consumer<String> logConsumer, Consumer<String> errConsumer) {
         this.config = config;
         this.logConsumer = logConsumer;
         this.errConsumer = errConsumer;
+        this.exclusions = ExclusionMatcher.compile(config.getExclude());
     }
 
-    private final List<ClassNode> classes = new ArrayList<>();
+    private final List<ClassWrapper> classes = new ArrayList<>();
     private final List<ResourceWrapper> resources = new ArrayList<>();
-    private ClassLoader classLoader;
+    private ClassIndex classIndex;
+    private LibraryIndex libraryIndex;
+    private HierarchyResolver hierarchyResolver;
     private TransformManager transformHandler;
+    private JarReader jarReader;
 
     @Override
     public Void call() throws Exception {
@@ -75,63 +85,48 @@ public class ByteObf extends Task<Void> {
             String inputExtension = this.config.getInput().getName().substring(this.config.getInput().getName().lastIndexOf(".") + 1).toLowerCase();
             if ("jar".equals(inputExtension)) {
                 log("Processing JAR input...");
-                final Set<String> entryNames = new HashSet<>();
-                try (var jarInputStream = new ZipInputStream(Files.newInputStream(this.config.getInput().toPath()))) {
-                    ZipEntry zipEntry;
-                    while ((zipEntry = jarInputStream.getNextEntry()) != null) {
-                        if (entryNames.add(zipEntry.getName())) {
-                            if (zipEntry.getName().endsWith(".class")) {
-                                if (classes.size() == Integer.MAX_VALUE) throw new IllegalArgumentException("Maximum class count exceeded");
-                                ClassReader reader = new ClassReader(jarInputStream);
-                                ClassNode classNode = new ClassNode();
-                                reader.accept(classNode, 0);
-                                classes.add(classNode);
-                            } else {
-                                if (resources.size() == Integer.MAX_VALUE) throw new IllegalArgumentException("Maximum resource count exceeded");
-                                resources.add(new ResourceWrapper(zipEntry, StreamUtils.readAll(jarInputStream)));
-                            }
-                        } else {
-                            log("Skipping duplicate resource/class entry: %s", zipEntry.getName());
-                        }
-                    }
-                }
+                this.jarReader = new JarReader(this);
+                this.jarReader.read(this.config.getInput(), this.classes, this.resources);
             } else {
                 throw new IllegalArgumentException("Unsupported file extension: " + inputExtension);
             }
 
             if (classes.isEmpty()) throw new IllegalArgumentException("Received input does not look like a proper JAR file");
+            this.classIndex = new ClassIndex(this.classes);
 
-            final var libs = this.getConfig().getLibraries();
-            URL[] urls = new URL[libs.size() + 1];
-            urls[libs.size()] = this.config.getInput().toURI().toURL();
-            for (int i = 0; i < libs.size(); i++) {
-                urls[i] = new File(libs.get(i)).toURI().toURL();
-            }
-            this.classLoader = new URLClassLoader(urls);
+            this.libraryIndex = LibraryIndex.load(this);
 
             log("Transforming...");
             this.transformHandler = new TransformManager(this);
             transformHandler.transformAll();
+            this.hierarchyResolver = new HierarchyResolver(this.classIndex, this.libraryIndex, this.transformHandler.getClassNameMap());
 
             log("Writing...");
             final Set<String> writtenClassNames = ConcurrentHashMap.newKeySet();
-            List<ClassNode> uniqueClasses = this.classes.stream()
-                    .filter(cn -> !"module-info".equals(cn.name) && writtenClassNames.add(cn.name))
+            List<ClassWrapper> uniqueClasses = this.classes.stream()
+                    .map(cw -> Map.entry(this.transformHandler.getOutputName(cw.getName()), cw))
+                    .filter(entry -> !"module-info".equals(entry.getKey()) && writtenClassNames.add(entry.getKey()))
+                    .map(Map.Entry::getValue)
                     .collect(Collectors.toList());
             if (this.classes.size() != uniqueClasses.size()) {
                 log("Removed %d duplicate class entries before writing.", this.classes.size() - uniqueClasses.size());
             }
 
-            try (var out = new JarOutputStream(Files.newOutputStream(this.config.getOutput()))) {
+            // Output replaces the input, load everything that is still backed by the input file
+            if (Files.exists(this.config.getOutput()) && Files.isSameFile(this.config.getInput().toPath(), this.config.getOutput())) {
+                this.resources.forEach(ResourceWrapper::detach);
+                this.jarReader.close();
+            }
+
+            try (var out = new JarWriter(Files.newOutputStream(this.config.getOutput()))) {
                 final Set<String> writtenResourceNames = new HashSet<>();
                 resources.stream()
                         .filter(resourceWrapper -> !resourceWrapper.getZipEntry().isDirectory())
-                        .filter(resourceWrapper -> resourceWrapper.getBytes() != null)
+                        .filter(ResourceWrapper::hasContent)
                         .filter(resourceWrapper -> writtenResourceNames.add(resourceWrapper.getZipEntry().getName()))
                         .forEach(resourceWrapper -> {
                             try {
-                                out.putNextEntry(new JarEntry(resourceWrapper.getZipEntry().getName()));
-                                StreamUtils.copy(new ByteArrayInputStream(resourceWrapper.getBytes()), out);
+                                resourceWrapper.writeTo(out);
                             } catch (Throwable e) {
                                 err("Cannot write resource: %s. Reason: %s", resourceWrapper.getZipEntry().getName(), e.getMessage());
                             }
@@ -143,40 +138,31 @@ public class ByteObf extends Task<Void> {
                         log("Obfuscation cancelled.");
                         break;
                     }
-                    ClassNode classNode = uniqueClasses.get(i);
-                    byte[] bytes;
-                    try {
-                        var classWriter = new CustomClassWriter(this, ClassWriter.COMPUTE_FRAMES, this.classLoader);
-                        classNode.accept(classWriter);
-                        bytes = classWriter.toByteArray();
-                    } catch (Throwable t) {
-                        try {
-                            err("Could not process class %s with COMPUTE_FRAMES, falling back to COMPUTE_MAXS. Error: %s", classNode.name, t.getMessage());
-                            var maxsWriter = new CustomClassWriter(this, ClassWriter.COMPUTE_MAXS, this.classLoader);
-                            classNode.accept(maxsWriter);
-                            bytes = maxsWriter.toByteArray();
-                        } catch (Throwable t2) {
-                            err("Failed to process class %s even with COMPUTE_MAXS. Skipping. Final error: %s", classNode.name, t2.getMessage());
-                            t2.printStackTrace();
-                            continue;
-                        }
-                    }
+                    ClassWrapper classWrapper = uniqueClasses.get(i);
+                    final String name = this.transformHandler.getOutputName(classWrapper.getName());
+                    byte[] bytes = this.toByteArray(classWrapper, name);
+                    if (bytes == null) continue;
 
                     try {
-                        out.putNextEntry(new JarEntry(classNode.name + ".class"));
+                        out.putNextEntry(new JarEntry(name + ".class"));
                         out.write(bytes);
                     } catch (Throwable e) {
-                        err("Cannot write class: %s. Reason: %s", classNode.name, e.getMessage());
+                        err("Cannot write class: %s. Reason: %s", classWrapper.getName(), e.getMessage());
                         e.printStackTrace();
                     }
                     updateProgress(i + 1, total);
                 }
 
-                transformHandler.getClassTransformers().stream()
-                        .filter(ClassTransformer::isEnabled)
+                transformHandler.getSchedule().getOrder()
                         .forEach(classTransformer -> classTransformer.transformOutput(out));
             }
 
+            final var unresolvedTypes = this.hierarchyResolver.getUnresolvedTypes();
+            if (!unresolvedTypes.isEmpty()) {
+                err("Frames of some classes could not be computed, %d types are missing from the input and libraries:", unresolvedTypes.size());
+                unresolvedTypes.forEach((type, requester) -> err("  %s, needed by %s", type, requester));
+            }
+
             log("Obfuscation process complete.");
             final String timeElapsed = new DecimalFormat("##.###").format(((double) System.currentTimeMillis() - startTime) / 1000D);
             log("Done. Took %ss", timeElapsed);
@@ -188,52 +174,101 @@ public class ByteObf extends Task<Void> {
             e.printStackTrace();
             updateMessage("Obfuscation failed. Please check the console for errors.");
             throw new Exception(e);
+        } finally {
+            if (this.jarReader != null) this.jarReader.close();
         }
         return null;
     }
 
-    public boolean isExcluded(ClassTransformer classTransformer, final String str) {
-        final String classNameWithDots = str.replace('/', '.');
-        return this.getConfig().getExclude().lines().anyMatch(line -> {
-            String cleanLine = line.trim();
-            if (cleanLine.isEmpty()) {
-                return false;
+    /**
+     * Renamed names are applied here, in the same pass that serializes the class
+     *
+     * @param name output name of the class
+     * @return the class file, or null if the class cannot be written even without computing frames
+     */
+    private byte[] toByteArray(ClassWrapper classWrapper, String name) {
+        if (!classWrapper.isMaterialized()) {
+            // Classes that no transformer materialized are written as they were read, or copied through the remapper
+            // if they mention something that was renamed. Code is copied as it is, so the original frames stay valid.
+            if (!this.transformHandler.isRemapped(classWrapper)) return classWrapper.getBytes();
+            final ClassWriter classWriter = new ClassWriter(0);
+            new ClassReader(classWrapper.getBytes()).accept(this.transformHandler.remap(classWriter), classWrapper.getParseFlags() & ~ClassReader.SKIP_FRAMES);
+            return classWriter.toByteArray();
+        }
+        final ClassNode classNode = classWrapper.getClassNode();
+        // Frames are only checked from Java 6 on. Older classes skip them, so their subroutines and types that can't be resolved don't matter.
+        final int flags = (classNode.version & 0xFFFF) < Opcodes.V1_6 ? ClassWriter.COMPUTE_MAXS : ClassWriter.COMPUTE_FRAMES;
+        try {
+            var classWriter = new CustomClassWriter(this.hierarchyResolver, flags, name);
+            classNode.accept(this.transformHandler.remap(classWriter));
+            return classWriter.toByteArray();
+        } catch (Throwable t) {
+            if (flags == ClassWriter.COMPUTE_MAXS) {
+                err("Failed to process class %s with COMPUTE_MAXS. Skipping. Error: %s", name, t.getMessage());
+                t.printStackTrace();
+                return null;
             }
-
-            String targetTransformer = null;
-            if (cleanLine.contains(":")) {
-                targetTransformer = cleanLine.split(":")[0];
-                cleanLine = cleanLine.substring((targetTransformer + ":").length());
+            try {
+                err("Could not process class %s with COMPUTE_FRAMES, falling back to COMPUTE_MAXS. Error: %s", name, t.getMessage());
+                var maxsWriter = new CustomClassWriter(this.hierarchyResolver, ClassWriter.COMPUTE_MAXS, name);
+                classNode.accept(this.transformHandler.remap(maxsWriter));
+                return maxsWriter.toByteArray();
+            } catch (Throwable t2) {
+                err("Failed to process class %s even with COMPUTE_MAXS. Skipping. Final error: %s", name, t2.getMessage());
+                t2.printStackTrace();
+                return null;
             }
+        }
+    }
 
-            if (targetTransformer != null && (classTransformer == null || !classTransformer.getName().equals(targetTransformer))) {
-                return false;
-            }
+    public boolean isExcluded(ClassTransformer classTransformer, final String str) {
+        return this.exclusions.isExcluded(classTransformer != null ? classTransformer.getName() : null, str);
+    }
 
-            if (cleanLine.endsWith(".**")) {
-                String basePackage = cleanLine.substring(0, cleanLine.length() - 2);
-                return classNameWithDots.startsWith(basePackage);
-            } else {
-                return classNameWithDots.equals(cleanLine);
-            }
-        });
+    /**
+     * Same as {@link #isExcluded(ClassTransformer, String)} with {@code owner.member + descriptor}, without building the name
+     */
+    public boolean isExcluded(ClassTransformer classTransformer, String owner, String member, String descriptor) {
+        return this.exclusions.isExcluded(classTransformer != null ? classTransformer.getName() : null, owner, member, descriptor);
+    }
+
+    /**
+     * @return whether a rule that applies to the transformer may exclude some members of the class, but not the class itself
+     */
+    public boolean hasExcludedMembers(ClassTransformer classTransformer, final String className) {
+        return this.exclusions.hasExcludedMembers(classTransformer != null ? classTransformer.getName() : null, className);
     }
 
     public TransformManager getTransformHandler() {
         return transformHandler;
     }
+    /**
+     * @return all input classes, materializing every one of them. Prefer {@link #getClassWrappers()}.
+     */
     public List<ClassNode> getClasses() {
+        return classes.stream().map(ClassWrapper::getClassNode).collect(Collectors.toList());
+    }
+    public List<ClassWrapper> getClassWrappers() {
         return classes;
     }
+    public ClassIndex getClassIndex() {
+        return classIndex;
+    }
+    public LibraryIndex getLibraryIndex() {
+        return libraryIndex;
+    }
     public List<ResourceWrapper> getResources() {
         return resources;
     }
-    public ClassLoader getClassLoader() {
-        return classLoader;
+    public HierarchyResolver getHierarchyResolver() {
+        return hierarchyResolver;
     }
     public ByteObfConfig getConfig() {
         return config;
     }
+    public SymbolTable getSymbols() {
+        return symbols;
+    }
 
     public void log(String format, Object... args) {
         String message = "[ByteObf] " + String.format(format, args);
@@ -0,0 +1,53 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package codes.rayacode.ByteObf.obfuscator.hierarchy;
+
+import codes.rayacode.ByteObf.obfuscator.utils.model.ClassWrapper;
+import org.objectweb.asm.tree.ClassNode;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Name lookups over the input classes. Built from class headers, so indexing doesn't parse anything.
+ */
+public class ClassIndex {
+
+    private final Map<String, ClassWrapper> classes = new HashMap<>();
+
+    /**
+     * Classes with a name that is already indexed are left out, the first one is kept
+     */
+    public ClassIndex(Collection<ClassWrapper> classWrappers) {
+        classWrappers.forEach(classWrapper -> this.classes.putIfAbsent(classWrapper.getName(), classWrapper));
+    }
+
+    public ClassWrapper get(String name) {
+        return name == null ? null : this.classes.get(name);
+    }
+
+    public ClassNode getClassNode(String name) {
+        ClassWrapper classWrapper = this.get(name);
+        return classWrapper == null ? null : classWrapper.getClassNode();
+    }
+
+    public boolean contains(String name) {
+        return name != null && this.classes.containsKey(name);
+    }
+}
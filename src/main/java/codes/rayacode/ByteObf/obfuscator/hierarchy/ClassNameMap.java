@@ -0,0 +1,59 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package codes.rayacode.ByteObf.obfuscator.hierarchy;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Class renames in both directions
+ */
+public class ClassNameMap {
+
+    private final Map<String, String> renamed = new HashMap<>();
+    private final Map<String, String> original = new HashMap<>();
+
+    public void put(String originalName, String newName) {
+        final String previous = this.renamed.put(originalName, newName);
+        if (previous != null) this.original.remove(previous);
+        this.original.put(newName, originalName);
+    }
+
+    /**
+     * @return the new name of the class, or the name itself if it wasn't renamed
+     */
+    public String getRenamed(String originalName) {
+        return this.renamed.getOrDefault(originalName, originalName);
+    }
+
+    /**
+     * @return the name the class had in the input, or the name itself if it wasn't renamed
+     */
+    public String getOriginal(String newName) {
+        return this.original.getOrDefault(newName, newName);
+    }
+
+    public boolean isRenamed(String originalName) {
+        return this.renamed.containsKey(originalName);
+    }
+
+    public Map<String, String> asMap() {
+        return Collections.unmodifiableMap(this.renamed);
+    }
+}
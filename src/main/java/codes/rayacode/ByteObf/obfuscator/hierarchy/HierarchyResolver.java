@@ -0,0 +1,128 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package codes.rayacode.ByteObf.obfuscator.hierarchy;
+
+import codes.rayacode.ByteObf.obfuscator.utils.model.ClassWrapper;
+import org.objectweb.asm.Opcodes;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Answers {@link org.objectweb.asm.ClassWriter#getCommonSuperClass(String, String)} from the input classes and the
+ * library index, without loading any class. Types are expected under their final (renamed) names.
+ */
+public class HierarchyResolver {
+
+    private static final String OBJECT = "java/lang/Object";
+
+    private record TypeInfo(String superName, List<String> interfaces, boolean isInterface) { }
+
+    private final ClassIndex classIndex;
+    private final LibraryIndex libraryIndex;
+    private final ClassNameMap classNames;
+    private final Map<String, String> commonSuperClasses = new ConcurrentHashMap<>();
+    // Unresolvable type -> class whose frames needed it
+    private final Map<String, String> unresolvedTypes = new ConcurrentHashMap<>();
+
+    public HierarchyResolver(ClassIndex classIndex, LibraryIndex libraryIndex, ClassNameMap classNames) {
+        this.classIndex = classIndex;
+        this.libraryIndex = libraryIndex;
+        this.classNames = classNames;
+    }
+
+    /**
+     * @param requester class whose frames are computed, only used for diagnostics
+     * @throws TypeNotPresentException if the hierarchy of either type can't be resolved
+     */
+    public String getCommonSuperClass(String type1, String type2, String requester) {
+        if (type1.equals(type2)) return type1;
+        // The result doesn't depend on the order of the types
+        final String key = type1.compareTo(type2) < 0 ? type1 + ';' + type2 : type2 + ';' + type1;
+        final String cached = this.commonSuperClasses.get(key);
+        if (cached != null) return cached;
+
+        final String commonSuperClass = this.computeCommonSuperClass(type1, type2, requester);
+        this.commonSuperClasses.put(key, commonSuperClass);
+        return commonSuperClass;
+    }
+
+    private String computeCommonSuperClass(String type1, String type2, String requester) {
+        // Same steps as ClassWriter.getCommonSuperClass
+        if (this.isAssignableFrom(type1, type2, requester)) return type1;
+        if (this.isAssignableFrom(type2, type1, requester)) return type2;
+        if (this.getInfo(type1, requester).isInterface() || this.getInfo(type2, requester).isInterface()) return OBJECT;
+
+        String type = type1;
+        do {
+            type = this.getInfo(type, requester).superName();
+            if (type == null) return OBJECT;
+        } while (!this.isAssignableFrom(type, type2, requester));
+        return type;
+    }
+
+    /**
+     * @return whether a value of type {@code from} can be assigned to {@code to}
+     */
+    private boolean isAssignableFrom(String to, String from, String requester) {
+        if (to.equals(from) || to.equals(OBJECT)) return true;
+        final Deque<String> queue = new ArrayDeque<>();
+        final Set<String> visited = new HashSet<>();
+        queue.add(from);
+        while (!queue.isEmpty()) {
+            final String type = queue.poll();
+            if (!visited.add(type)) continue;
+            if (type.equals(to)) return true;
+            final TypeInfo info = this.getInfo(type, requester);
+            if (info.superName() != null) queue.add(info.superName());
+            queue.addAll(info.interfaces());
+        }
+        return false;
+    }
+
+    private TypeInfo getInfo(String type, String requester) {
+        // Frames are computed with the output names, the index knows input classes by their input names
+        final ClassWrapper classWrapper = this.classIndex.get(this.classNames.getOriginal(type));
+        if (classWrapper != null) {
+            final String superName = classWrapper.getSuperName();
+            return new TypeInfo(superName != null ? this.classNames.getRenamed(superName) : null,
+                    classWrapper.getInterfaces().stream().map(this.classNames::getRenamed).toList(),
+                    (classWrapper.getAccess() & Opcodes.ACC_INTERFACE) != 0);
+        }
+
+        final LibraryClass libraryClass = this.libraryIndex.get(type);
+        if (libraryClass != null) return new TypeInfo(libraryClass.superName(), libraryClass.interfaces(), libraryClass.isInterface());
+
+        this.unresolvedTypes.putIfAbsent(type, requester);
+        throw new TypeNotPresentException(type, null);
+    }
+
+    /**
+     * @return types that couldn't be resolved, with their input names, and the first class that needed each of them
+     */
+    public Map<String, String> getUnresolvedTypes() {
+        final Map<String, String> types = new TreeMap<>();
+        this.unresolvedTypes.forEach((type, requester) -> types.put(this.describe(type), this.describe(requester)));
+        return types;
+    }
+
+    private String describe(String type) {
+        final String original = this.classNames.getOriginal(type);
+        return original.equals(type) ? type : type + " (" + original + ")";
+    }
+}
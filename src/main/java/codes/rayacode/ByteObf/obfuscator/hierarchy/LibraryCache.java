@@ -0,0 +1,167 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package codes.rayacode.ByteObf.obfuscator.hierarchy;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Directory of library indexes keyed by the content hash of the library JAR.
+ * Using an entry refreshes its modification time, the least recently used entries are evicted first.
+ */
+public class LibraryCache {
+
+    private static final int MAGIC = 0x424F4C49; // BOLI
+    private static final int VERSION = 1;
+    private static final String EXTENSION = ".idx";
+
+    private final Path directory;
+    private final int maxEntries;
+
+    public LibraryCache(Path directory, int maxEntries) {
+        this.directory = directory;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @return the cached classes, or null if there is no usable entry for the hash
+     */
+    public List<LibraryClass> read(String hash) {
+        final Path file = this.directory.resolve(hash + EXTENSION);
+        if (!Files.isRegularFile(file)) return null;
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return null;
+            final String[] strings = new String[in.readInt()];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            final int classCount = in.readInt();
+            final List<LibraryClass> classes = new ArrayList<>(classCount);
+            for (int i = 0; i < classCount; i++) {
+                final String name = strings[in.readInt()];
+                final int superName = in.readInt();
+                final int access = in.readInt();
+                final List<String> interfaces = new ArrayList<>();
+                for (int j = in.readInt(); j > 0; j--) interfaces.add(strings[in.readInt()]);
+                final List<LibraryClass.Member> methods = readMembers(in, strings);
+                final List<LibraryClass.Member> fields = readMembers(in, strings);
+                classes.add(new LibraryClass(name, superName == -1 ? null : strings[superName], List.copyOf(interfaces), access, methods, fields));
+            }
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return classes;
+        } catch (IOException | RuntimeException e) {
+            // Truncated or otherwise broken entry, it'll be written again
+            return null;
+        }
+    }
+
+    private static List<LibraryClass.Member> readMembers(DataInputStream in, String[] strings) throws IOException {
+        final int count = in.readInt();
+        final List<LibraryClass.Member> members = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) members.add(new LibraryClass.Member(in.readInt(), strings[in.readInt()], strings[in.readInt()]));
+        return List.copyOf(members);
+    }
+
+    public void write(String hash, List<LibraryClass> classes) throws IOException {
+        // Names and descriptors repeat a lot, store every string once
+        final Map<String, Integer> strings = new LinkedHashMap<>();
+        for (LibraryClass libraryClass : classes) {
+            strings.putIfAbsent(libraryClass.name(), strings.size());
+            if (libraryClass.superName() != null) strings.putIfAbsent(libraryClass.superName(), strings.size());
+            libraryClass.interfaces().forEach(itf -> strings.putIfAbsent(itf, strings.size()));
+            Stream.concat(libraryClass.methods().stream(), libraryClass.fields().stream()).forEach(member -> {
+                strings.putIfAbsent(member.name(), strings.size());
+                strings.putIfAbsent(member.desc(), strings.size());
+            });
+        }
+
+        Files.createDirectories(this.directory);
+        final Path temp = Files.createTempFile(this.directory, hash, ".tmp");
+        try {
+            try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(strings.size());
+                for (String string : strings.keySet()) {
+                    byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+
+                out.writeInt(classes.size());
+                for (LibraryClass libraryClass : classes) {
+                    out.writeInt(strings.get(libraryClass.name()));
+                    out.writeInt(libraryClass.superName() == null ? -1 : strings.get(libraryClass.superName()));
+                    out.writeInt(libraryClass.access());
+                    out.writeInt(libraryClass.interfaces().size());
+                    for (String itf : libraryClass.interfaces()) out.writeInt(strings.get(itf));
+                    writeMembers(out, libraryClass.methods(), strings);
+                    writeMembers(out, libraryClass.fields(), strings);
+                }
+            }
+            Files.move(temp, this.directory.resolve(hash + EXTENSION), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeMembers(DataOutputStream out, List<LibraryClass.Member> members, Map<String, Integer> strings) throws IOException {
+        out.writeInt(members.size());
+        for (LibraryClass.Member member : members) {
+            out.writeInt(member.access());
+            out.writeInt(strings.get(member.name()));
+            out.writeInt(strings.get(member.desc()));
+        }
+    }
+
+    /**
+     * Deletes the least recently used entries above the size limit
+     *
+     * @return number of deleted entries
+     */
+    public int evict() throws IOException {
+        if (!Files.isDirectory(this.directory)) return 0;
+        final List<Path> entries;
+        try (Stream<Path> files = Files.list(this.directory)) {
+            entries = files.filter(file -> file.getFileName().toString().endsWith(EXTENSION))
+                    .sorted(Comparator.comparing(LibraryCache::getLastModifiedTime).reversed())
+                    .collect(Collectors.toList());
+        }
+        int deleted = 0;
+        for (Path file : entries.subList(Math.min(this.maxEntries, entries.size()), entries.size())) {
+            if (Files.deleteIfExists(file)) deleted++;
+        }
+        return deleted;
+    }
+
+    private static FileTime getLastModifiedTime(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package codes.rayacode.ByteObf.obfuscator.hierarchy;
+
+import org.objectweb.asm.Opcodes;
+
+import java.util.List;
+
+/**
+ * Hierarchy and member declarations of a library class, without any code
+ */
+public record LibraryClass(String name, String superName, List<String> interfaces, int access, List<Member> methods, List<Member> fields) {
+
+    public record Member(int access, String name, String desc) {
+        /**
+         * @return whether a subclass method with the same name and descriptor would override this method
+         */
+        public boolean isOverridable() {
+            return (this.access & (Opcodes.ACC_STATIC | Opcodes.ACC_PRIVATE)) == 0 && !this.name.startsWith("<");
+        }
+    }
+
+    public boolean isInterface() {
+        return (this.access & Opcodes.ACC_INTERFACE) != 0;
+    }
+}
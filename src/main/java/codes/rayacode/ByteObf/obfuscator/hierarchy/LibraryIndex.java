@@ -0,0 +1,216 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package codes.rayacode.ByteObf.obfuscator.hierarchy;
+
+import codes.rayacode.ByteObf.obfuscator.ByteObf;
+import codes.rayacode.ByteObf.obfuscator.io.ZipArchive;
+import codes.rayacode.ByteObf.obfuscator.io.ZipArchiveEntry;
+import codes.rayacode.ByteObf.obfuscator.utils.ThreadUtils;
+import org.objectweb.asm.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.DecimalFormat;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hierarchy and member index of the library JARs and the Java runtime.
+ * Library JARs are read up front with {@link ClassReader#SKIP_CODE} and their indexes are cached across runs,
+ * runtime classes are read on demand.
+ */
+public class LibraryIndex {
+
+    private final Map<String, LibraryClass> classes;
+    // Runtime classes that were looked up, empty if the runtime doesn't have them
+    private final Map<String, Optional<LibraryClass>> runtimeClasses = new ConcurrentHashMap<>();
+    private final Map<String, Optional<Set<String>>> overridableMethods = new ConcurrentHashMap<>();
+
+    private LibraryIndex(Map<String, LibraryClass> classes) {
+        this.classes = classes;
+    }
+
+    /**
+     * Indexes the configured libraries, reusing cached indexes of JARs that were read before
+     */
+    public static LibraryIndex load(ByteObf byteObf) {
+        final long startTime = System.currentTimeMillis();
+        final var performanceOptions = byteObf.getConfig().getPerformanceOptions();
+        final LibraryCache cache = performanceOptions.getLibraryCacheSize() > 0
+                ? new LibraryCache(performanceOptions.getLibraryCacheDirectory(), performanceOptions.getLibraryCacheSize()) : null;
+
+        final List<String> libraries = byteObf.getConfig().getLibraries() == null ? List.of() : byteObf.getConfig().getLibraries();
+        final List<List<LibraryClass>> results = new ArrayList<>(Collections.nCopies(libraries.size(), List.of()));
+        final AtomicInteger cached = new AtomicInteger();
+        ThreadUtils.forEach("library", performanceOptions.getThreadCount(), indexes(libraries.size()), i -> {
+            final Path path = Path.of(libraries.get(i));
+            try {
+                final String hash = hash(path);
+                List<LibraryClass> libraryClasses = cache == null ? null : cache.read(hash);
+                if (libraryClasses != null) {
+                    cached.incrementAndGet();
+                } else {
+                    libraryClasses = readLibrary(path);
+                    if (cache != null) {
+                        // The library is still used if it can't be cached
+                        try {
+                            cache.write(hash, libraryClasses);
+                        } catch (IOException | RuntimeException e) {
+                            byteObf.err("Cannot cache library index of %s: %s", path, e.getMessage());
+                        }
+                    }
+                }
+                results.set(i, libraryClasses);
+            } catch (IOException | RuntimeException e) {
+                byteObf.err("Cannot index library %s: %s", path, e.getMessage());
+            }
+        });
+
+        // Earlier libraries win, like on a class path
+        final Map<String, LibraryClass> classes = new HashMap<>();
+        results.forEach(list -> list.forEach(libraryClass -> classes.putIfAbsent(libraryClass.name(), libraryClass)));
+
+        if (cache != null) {
+            try {
+                cache.evict();
+            } catch (IOException e) {
+                byteObf.err("Cannot clean library cache: %s", e.getMessage());
+            }
+        }
+        if (!libraries.isEmpty()) {
+            byteObf.log("Indexed %d library classes from %d libraries (%d cached) in %ss", classes.size(), libraries.size(), cached.get(),
+                    new DecimalFormat("##.###").format((System.currentTimeMillis() - startTime) / 1000D));
+        }
+        return new LibraryIndex(classes);
+    }
+
+    private static List<Integer> indexes(int size) {
+        final List<Integer> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) list.add(i);
+        return list;
+    }
+
+    /**
+     * @return the library class, or null if neither the libraries nor the runtime have it
+     */
+    public LibraryClass get(String name) {
+        if (name == null) return null;
+        final LibraryClass libraryClass = this.classes.get(name);
+        if (libraryClass != null) return libraryClass;
+        return this.runtimeClasses.computeIfAbsent(name, LibraryIndex::readRuntimeClass).orElse(null);
+    }
+
+    /**
+     * @return name + descriptor of every method a subclass of the type can override, including inherited ones,
+     * or null if part of its hierarchy can't be found
+     */
+    public Set<String> getOverridableMethods(String name) {
+        final Optional<Set<String>> known = this.overridableMethods.get(name);
+        if (known != null) return known.orElse(null);
+
+        // Not computeIfAbsent, the computation recurses into the same map
+        final Set<String> methods = this.computeOverridableMethods(name, new HashSet<>());
+        this.overridableMethods.put(name, Optional.ofNullable(methods));
+        return methods;
+    }
+
+    private Set<String> computeOverridableMethods(String name, Set<String> visiting) {
+        final LibraryClass libraryClass = this.get(name);
+        if (libraryClass == null || !visiting.add(name)) return null;
+
+        final Set<String> methods = new HashSet<>();
+        final List<String> supertypes = new ArrayList<>(libraryClass.interfaces());
+        if (libraryClass.superName() != null) supertypes.add(libraryClass.superName());
+        for (String supertype : supertypes) {
+            final Optional<Set<String>> known = this.overridableMethods.get(supertype);
+            final Set<String> inherited = known != null ? known.orElse(null) : this.computeOverridableMethods(supertype, visiting);
+            if (known == null) this.overridableMethods.put(supertype, Optional.ofNullable(inherited));
+            if (inherited == null) return null;
+            methods.addAll(inherited);
+        }
+        libraryClass.methods().stream()
+                .filter(LibraryClass.Member::isOverridable)
+                .forEach(member -> methods.add(member.name() + member.desc()));
+        return Collections.unmodifiableSet(methods);
+    }
+
+    private static Optional<LibraryClass> readRuntimeClass(String name) {
+        // Only the runtime itself, the class path of ByteObf isn't part of the obfuscated program
+        try (InputStream in = ClassLoader.getPlatformClassLoader().getResourceAsStream(name + ".class")) {
+            return in == null ? Optional.empty() : Optional.of(readClass(in.readAllBytes()));
+        } catch (IOException | RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static List<LibraryClass> readLibrary(Path path) throws IOException {
+        final List<LibraryClass> classes = new ArrayList<>();
+        try (ZipArchive archive = ZipArchive.open(path)) {
+            for (ZipArchiveEntry entry : archive.getEntries()) {
+                // Versioned entries of multi-release JARs share the hierarchy of the base entries
+                if (!entry.isClass() || entry.name().startsWith("META-INF/") || entry.name().endsWith("module-info.class")) continue;
+                try {
+                    classes.add(readClass(archive.read(entry)));
+                } catch (RuntimeException e) {
+                    // Broken classes in libraries are common, they just can't be resolved
+                }
+            }
+        }
+        return classes;
+    }
+
+    private static LibraryClass readClass(byte[] bytes) {
+        final ClassReader reader = new ClassReader(bytes);
+        final List<LibraryClass.Member> methods = new ArrayList<>(), fields = new ArrayList<>();
+        reader.accept(new ClassVisitor(Opcodes.ASM9) {
+            @Override
+            public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+                fields.add(new LibraryClass.Member(access, name, descriptor));
+                return null;
+            }
+
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                methods.add(new LibraryClass.Member(access, name, descriptor));
+                return null;
+            }
+        }, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        return new LibraryClass(reader.getClassName(), reader.getSuperName(), List.of(reader.getInterfaces()), reader.getAccess(),
+                List.copyOf(methods), List.copyOf(fields));
+    }
+
+    private static String hash(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            final byte[] buffer = new byte[0x10000];
+            for (int read; (read = in.read(buffer)) != -1; ) digest.update(buffer, 0, read);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public int size() {
+        return this.classes.size();
+    }
+}
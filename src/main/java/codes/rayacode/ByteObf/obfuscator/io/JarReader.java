@@ -0,0 +1,176 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package codes.rayacode.ByteObf.obfuscator.io;
+
+import codes.rayacode.ByteObf.obfuscator.ByteObf;
+import codes.rayacode.ByteObf.obfuscator.utils.StreamUtils;
+import codes.rayacode.ByteObf.obfuscator.utils.StringUtils;
+import codes.rayacode.ByteObf.obfuscator.utils.ThreadUtils;
+import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfConfig;
+import codes.rayacode.ByteObf.obfuscator.utils.model.ClassWrapper;
+import codes.rayacode.ByteObf.obfuscator.utils.model.ResourceWrapper;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+
+public class JarReader implements Closeable {
+
+    private final ByteObf byteObf;
+    // Input archive that unmodified resources are copied or lazily loaded from
+    private ZipArchive archive;
+
+    public JarReader(ByteObf byteObf) {
+        this.byteObf = byteObf;
+    }
+
+    private record ReadResult(ClassWrapper classWrapper, ResourceWrapper resource, long size) { }
+
+    /**
+     * Reads all classes and resources of the input into the given lists, in archive order.
+     * Only the first entry of duplicate names is kept. Classes are not parsed here, see {@link ClassWrapper}.
+     */
+    public void read(File input, List<ClassWrapper> classes, List<ResourceWrapper> resources) throws IOException {
+        final long startTime = System.nanoTime();
+        final var performanceOptions = this.byteObf.getConfig().getPerformanceOptions();
+
+        long totalBytes = -1;
+        final var inputMode = performanceOptions.getInputMode();
+        if (inputMode != ByteObfConfig.PerformanceOptions.InputMode.STREAM) {
+            final boolean mapped = inputMode == ByteObfConfig.PerformanceOptions.InputMode.MAPPED;
+            final ZipArchive archive = this.openArchive(input, mapped);
+            if (archive != null) {
+                // Unmodified resources are copied from the archive on write, keep it open until close().
+                // Mapped resources are also left in the mapping until they are needed.
+                this.archive = archive;
+                totalBytes = this.readParallel(archive, mapped, performanceOptions.getThreadCount(), classes, resources);
+            }
+        }
+        if (totalBytes == -1) totalBytes = this.readStream(input, classes, resources);
+
+        final double seconds = Math.max(System.nanoTime() - startTime, 1) / 1_000_000_000D;
+        final int entryCount = classes.size() + resources.size();
+        this.byteObf.log("Read %d entries (%s) in %ss: %.0f entries/s, %.2f MB/s", entryCount, StringUtils.getConvertedSize(totalBytes),
+                new DecimalFormat("##.###").format(seconds), entryCount / seconds, totalBytes / seconds / (1024D * 1024D));
+    }
+
+    private ZipArchive openArchive(File input, boolean mapped) throws IOException {
+        try {
+            return mapped ? MappedZipArchive.open(input.toPath()) : ZipArchive.open(input.toPath());
+        } catch (ZipException e) {
+            // Streams without a readable central directory can still be read entry by entry
+            this.byteObf.log("Cannot read central directory (%s), falling back to stream input", e.getMessage());
+            return null;
+        }
+    }
+
+    private long readParallel(ZipArchive archive, boolean lazyResources, int threads, List<ClassWrapper> classes, List<ResourceWrapper> resources) throws IOException {
+        final Set<String> entryNames = new HashSet<>();
+        final List<ZipArchiveEntry> entries = new ArrayList<>();
+        for (ZipArchiveEntry entry : archive.getEntries()) {
+            if (entryNames.add(entry.name())) entries.add(entry);
+            else this.byteObf.log("Skipping duplicate resource/class entry: %s", entry.name());
+        }
+
+        final ExecutorService executor = ThreadUtils.newFixedThreadPool("reader", threads);
+        try {
+            final List<Future<ReadResult>> futures = new ArrayList<>(entries.size());
+            for (ZipArchiveEntry entry : entries) {
+                futures.add(executor.submit(() -> this.readEntry(archive, entry, lazyResources)));
+            }
+
+            // Collect in submission order so the result doesn't depend on scheduling
+            long totalBytes = 0;
+            for (Future<ReadResult> future : futures) {
+                ReadResult result = future.get();
+                if (result.classWrapper() != null) {
+                    if (classes.size() == Integer.MAX_VALUE) throw new IllegalArgumentException("Maximum class count exceeded");
+                    classes.add(result.classWrapper());
+                } else {
+                    if (resources.size() == Integer.MAX_VALUE) throw new IllegalArgumentException("Maximum resource count exceeded");
+                    resources.add(result.resource());
+                }
+                totalBytes += result.size();
+            }
+            return totalBytes;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) throw ioException;
+            if (e.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading input", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ReadResult readEntry(ZipArchive archive, ZipArchiveEntry entry, boolean lazyResources) throws IOException {
+        if (entry.isDirectory()) return new ReadResult(null, new ResourceWrapper(entry.toZipEntry(), new byte[0]), 0);
+        if (lazyResources && !entry.isClass()) return new ReadResult(null, new ResourceWrapper(archive, entry, null), 0);
+
+        byte[] bytes = archive.read(entry);
+        if (entry.isClass()) return new ReadResult(new ClassWrapper(this.byteObf.getSymbols(), bytes), null, bytes.length);
+        return new ReadResult(null, new ResourceWrapper(archive, entry, bytes), bytes.length);
+    }
+
+    private long readStream(File input, List<ClassWrapper> classes, List<ResourceWrapper> resources) throws IOException {
+        long totalBytes = 0;
+        final Set<String> entryNames = new HashSet<>();
+        try (var jarInputStream = new ZipInputStream(Files.newInputStream(input.toPath()))) {
+            ZipEntry zipEntry;
+            while ((zipEntry = jarInputStream.getNextEntry()) != null) {
+                if (entryNames.add(zipEntry.getName())) {
+                    byte[] bytes = StreamUtils.readAll(jarInputStream);
+                    totalBytes += bytes.length;
+                    if (zipEntry.getName().endsWith(".class")) {
+                        if (classes.size() == Integer.MAX_VALUE) throw new IllegalArgumentException("Maximum class count exceeded");
+                        classes.add(new ClassWrapper(this.byteObf.getSymbols(), bytes));
+                    } else {
+                        if (resources.size() == Integer.MAX_VALUE) throw new IllegalArgumentException("Maximum resource count exceeded");
+                        resources.add(new ResourceWrapper(zipEntry, bytes));
+                    }
+                } else {
+                    this.byteObf.log("Skipping duplicate resource/class entry: %s", zipEntry.getName());
+                }
+            }
+        }
+        return totalBytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.archive != null) {
+            this.archive.close();
+            this.archive = null;
+        }
+    }
+}
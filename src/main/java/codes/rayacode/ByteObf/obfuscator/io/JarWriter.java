@@ -0,0 +1,261 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package codes.rayacode.ByteObf.obfuscator.io;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * ZIP writer that, besides deflating new entries like {@link java.util.zip.ZipOutputStream}, can copy entries of a
+ * {@link ZipArchive} as they are stored, without inflating and deflating them again.
+ * New entries are always deflated.
+ */
+public class JarWriter implements Closeable {
+
+    private static final int LOC_SIG = 0x04034b50;
+    private static final int EXT_SIG = 0x08074b50;
+    private static final int CEN_SIG = 0x02014b50;
+    private static final int END_SIG = 0x06054b50;
+    private static final int ZIP64_END_SIG = 0x06064b50;
+    private static final int ZIP64_LOC_SIG = 0x07064b50;
+
+    private static final int FLAG_DATA_DESCRIPTOR = 0x08;
+    private static final int FLAG_UTF8 = 0x800;
+    private static final int VERSION = 20;
+    private static final int VERSION_ZIP64 = 45;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+
+    private record Record(byte[] name, int method, int flags, int dosTime, long crc, long compressedSize, long size, long offset) { }
+
+    private final OutputStream out;
+    private final List<Record> records = new ArrayList<>();
+    private final Set<String> names = new HashSet<>();
+    private final byte[] buffer = new byte[0x10000];
+    private long written;
+    private byte[] comment;
+
+    // State of the entry that is being deflated
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private final CRC32 crc = new CRC32();
+    private byte[] currentName;
+    private int currentDosTime;
+    private long currentOffset;
+    private long currentSize;
+    private boolean closed;
+
+    public JarWriter(OutputStream out) {
+        this.out = new BufferedOutputStream(out, 0x10000);
+    }
+
+    /**
+     * Starts a new deflated entry, finishing the previous one
+     */
+    public void putNextEntry(ZipEntry entry) throws IOException {
+        this.closeEntry();
+        final byte[] name = this.addName(entry.getName());
+        final int dosTime = toDosTime(entry.getTime() == -1 ? LocalDateTime.now() : entry.getTimeLocal());
+        this.currentOffset = this.written;
+        this.writeLocalHeader(name, ZipEntry.DEFLATED, FLAG_UTF8 | FLAG_DATA_DESCRIPTOR, dosTime, 0, 0, 0);
+        this.currentName = name;
+        this.currentDosTime = dosTime;
+        this.currentSize = 0;
+        this.crc.reset();
+        this.deflater.reset();
+    }
+
+    public void write(byte[] b) throws IOException {
+        this.write(b, 0, b.length);
+    }
+
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (this.currentName == null) throw new ZipException("No current entry");
+        this.crc.update(b, off, len);
+        this.currentSize += len;
+        this.deflater.setInput(b, off, len);
+        while (!this.deflater.needsInput()) this.deflate();
+    }
+
+    /**
+     * @return stream that writes to the current entry until the next entry is started
+     */
+    public OutputStream getEntryStream() {
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                JarWriter.this.write(new byte[] { (byte) b }, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                JarWriter.this.write(b, off, len);
+            }
+        };
+    }
+
+    public void closeEntry() throws IOException {
+        if (this.currentName == null) return;
+        this.deflater.finish();
+        while (!this.deflater.finished()) this.deflate();
+
+        final long compressedSize = this.deflater.getBytesWritten();
+        if (compressedSize >= ZIP64_MAGIC || this.currentSize >= ZIP64_MAGIC)
+            throw new ZipException("Entry is too large: " + new String(this.currentName, StandardCharsets.UTF_8));
+        final ByteBuffer descriptor = newBuffer(16);
+        descriptor.putInt(EXT_SIG).putInt((int) this.crc.getValue()).putInt((int) compressedSize).putInt((int) this.currentSize);
+        this.writeBuffer(descriptor);
+
+        this.records.add(new Record(this.currentName, ZipEntry.DEFLATED, FLAG_UTF8 | FLAG_DATA_DESCRIPTOR, this.currentDosTime,
+                this.crc.getValue(), compressedSize, this.currentSize, this.currentOffset));
+        this.currentName = null;
+    }
+
+    /**
+     * Copies the entry with its compression method, CRC, sizes and time, without decompressing it
+     */
+    public void copyEntry(ZipArchive archive, ZipArchiveEntry entry) throws IOException {
+        this.closeEntry();
+        if (entry.compressedSize() >= ZIP64_MAGIC || entry.size() >= ZIP64_MAGIC) throw new ZipException("Entry is too large: " + entry.name());
+        final ByteBuffer raw = archive.readRaw(entry);
+        final byte[] name = this.addName(entry.name());
+        final int flags = FLAG_UTF8 | (entry.flags() & 0x06); // Keep the deflate option bits only
+        final long offset = this.written;
+        this.writeLocalHeader(name, entry.method(), flags, entry.dosTime(), entry.crc(), entry.compressedSize(), entry.size());
+        while (raw.hasRemaining()) {
+            int length = Math.min(this.buffer.length, raw.remaining());
+            raw.get(this.buffer, 0, length);
+            this.writeBytes(this.buffer, 0, length);
+        }
+        this.records.add(new Record(name, entry.method(), flags, entry.dosTime(), entry.crc(), entry.compressedSize(), entry.size(), offset));
+    }
+
+    public void setComment(String comment) {
+        this.comment = comment == null ? null : comment.getBytes(StandardCharsets.UTF_8);
+        if (this.comment != null && this.comment.length > 0xFFFF) throw new IllegalArgumentException("ZIP file comment too long");
+    }
+
+    private byte[] addName(String name) throws ZipException {
+        if (!this.names.add(name)) throw new ZipException("duplicate entry: " + name);
+        final byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) throw new ZipException("Entry name is too long: " + name);
+        return bytes;
+    }
+
+    private void deflate() throws IOException {
+        int length = this.deflater.deflate(this.buffer, 0, this.buffer.length, Deflater.NO_FLUSH);
+        if (length > 0) this.writeBytes(this.buffer, 0, length);
+    }
+
+    private void writeLocalHeader(byte[] name, int method, int flags, int dosTime, long crc, long compressedSize, long size) throws IOException {
+        final ByteBuffer header = newBuffer(30);
+        header.putInt(LOC_SIG).putShort((short) VERSION).putShort((short) flags).putShort((short) method).putInt(dosTime)
+                .putInt((int) crc).putInt((int) compressedSize).putInt((int) size).putShort((short) name.length).putShort((short) 0);
+        this.writeBuffer(header);
+        this.writeBytes(name, 0, name.length);
+    }
+
+    private void writeCentralDirectory() throws IOException {
+        final long directoryOffset = this.written;
+        for (Record record : this.records) {
+            final boolean zip64 = record.offset() >= ZIP64_MAGIC;
+            final ByteBuffer header = newBuffer(46);
+            header.putInt(CEN_SIG).putShort((short) (zip64 ? VERSION_ZIP64 : VERSION)).putShort((short) (zip64 ? VERSION_ZIP64 : VERSION))
+                    .putShort((short) record.flags()).putShort((short) record.method()).putInt(record.dosTime())
+                    .putInt((int) record.crc()).putInt((int) record.compressedSize()).putInt((int) record.size())
+                    .putShort((short) record.name().length).putShort((short) (zip64 ? 12 : 0)).putShort((short) 0)
+                    .putShort((short) 0).putShort((short) 0).putInt(0).putInt((int) (zip64 ? ZIP64_MAGIC : record.offset()));
+            this.writeBuffer(header);
+            this.writeBytes(record.name(), 0, record.name().length);
+            if (zip64) {
+                // ZIP64 extended information holding only the local header offset
+                final ByteBuffer extra = newBuffer(12);
+                extra.putShort((short) 0x0001).putShort((short) 8).putLong(record.offset());
+                this.writeBuffer(extra);
+            }
+        }
+        final long directorySize = this.written - directoryOffset;
+
+        final int count = this.records.size();
+        final boolean zip64 = count >= 0xFFFF || directoryOffset >= ZIP64_MAGIC || directorySize >= ZIP64_MAGIC;
+        if (zip64) {
+            final long zip64EndOffset = this.written;
+            final ByteBuffer end = newBuffer(56);
+            end.putInt(ZIP64_END_SIG).putLong(44).putShort((short) VERSION_ZIP64).putShort((short) VERSION_ZIP64).putInt(0).putInt(0)
+                    .putLong(count).putLong(count).putLong(directorySize).putLong(directoryOffset);
+            this.writeBuffer(end);
+            final ByteBuffer locator = newBuffer(20);
+            locator.putInt(ZIP64_LOC_SIG).putInt(0).putLong(zip64EndOffset).putInt(1);
+            this.writeBuffer(locator);
+        }
+
+        final byte[] comment = this.comment == null ? new byte[0] : this.comment;
+        final ByteBuffer end = newBuffer(22);
+        end.putInt(END_SIG).putShort((short) 0).putShort((short) 0)
+                .putShort((short) Math.min(count, 0xFFFF)).putShort((short) Math.min(count, 0xFFFF))
+                .putInt((int) Math.min(directorySize, ZIP64_MAGIC)).putInt((int) Math.min(directoryOffset, ZIP64_MAGIC))
+                .putShort((short) comment.length);
+        this.writeBuffer(end);
+        this.writeBytes(comment, 0, comment.length);
+    }
+
+    private void writeBuffer(ByteBuffer buffer) throws IOException {
+        this.writeBytes(buffer.array(), 0, buffer.position());
+    }
+
+    private void writeBytes(byte[] b, int off, int len) throws IOException {
+        this.out.write(b, off, len);
+        this.written += len;
+    }
+
+    private static ByteBuffer newBuffer(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static int toDosTime(LocalDateTime time) {
+        if (time.getYear() < 1980) return (1 << 21) | (1 << 16);
+        return (time.getYear() - 1980) << 25 | time.getMonthValue() << 21 | time.getDayOfMonth() << 16
+                | time.getHour() << 11 | time.getMinute() << 5 | time.getSecond() >> 1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.closed) return;
+        this.closed = true;
+        try {
+            this.closeEntry();
+            this.writeCentralDirectory();
+            this.out.flush();
+        } finally {
+            this.deflater.end();
+            this.out.close();
+        }
+    }
+}
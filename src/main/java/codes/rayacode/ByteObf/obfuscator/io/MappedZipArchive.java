@@ -0,0 +1,75 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package codes.rayacode.ByteObf.obfuscator.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+/**
+ * {@link ZipArchive} backed by a read-only memory mapping of the file. Slices handed out by this archive point
+ * into the mapping, so entry data is never copied to the heap unless it's inflated or modified.
+ */
+public class MappedZipArchive extends ZipArchive {
+
+    // A single mapping is limited to 2 GB. Consecutive windows overlap,
+    // so entries smaller than the overlap never straddle two of them.
+    private static final long WINDOW_SIZE = 1L << 30;
+    private static final long WINDOW_OVERLAP = 1L << 28;
+
+    private final MappedByteBuffer[] windows;
+
+    protected MappedZipArchive(Path path) throws IOException {
+        super(path);
+        try {
+            final int count = (int) Math.max(1, (this.length + WINDOW_SIZE - 1) / WINDOW_SIZE);
+            final MappedByteBuffer[] mappings = new MappedByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long start = i * WINDOW_SIZE;
+                mappings[i] = this.channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(this.length - start, WINDOW_SIZE + WINDOW_OVERLAP));
+            }
+            this.windows = mappings;
+        } catch (IOException | RuntimeException e) {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    public static MappedZipArchive open(Path path) throws IOException {
+        return new MappedZipArchive(path);
+    }
+
+    @Override
+    protected ByteBuffer slice(long position, int length) throws IOException {
+        // The central directory is read by the super constructor before the file is mapped
+        if (this.windows == null || position < 0) return super.slice(position, length);
+
+        int index = (int) (position / WINDOW_SIZE);
+        if (index < this.windows.length) {
+            MappedByteBuffer window = this.windows[index];
+            int offset = (int) (position - index * WINDOW_SIZE);
+            if (offset + (long) length <= window.capacity()) return window.slice(offset, length).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        // Huge entries crossing a window boundary are copied instead
+        return super.slice(position, length);
+    }
+}
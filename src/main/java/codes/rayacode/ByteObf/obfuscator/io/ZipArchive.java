@@ -0,0 +1,227 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package codes.rayacode.ByteObf.obfuscator.io;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * Random access ZIP reader. Entries are located from the central directory and their contents are read with
+ * positional reads, so any number of threads can inflate entries at the same time.
+ */
+public class ZipArchive implements Closeable {
+
+    private static final int LOC_SIG = 0x04034b50;
+    private static final int CEN_SIG = 0x02014b50;
+    private static final int END_SIG = 0x06054b50;
+    private static final int ZIP64_END_SIG = 0x06064b50;
+    private static final int ZIP64_LOC_SIG = 0x07064b50;
+
+    private static final int LOC_HEADER_SIZE = 30;
+    private static final int CEN_HEADER_SIZE = 46;
+    private static final int END_HEADER_SIZE = 22;
+    private static final int ZIP64_LOC_SIZE = 20;
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+
+    protected final FileChannel channel;
+    protected final long length;
+    private final List<ZipArchiveEntry> entries;
+
+    protected ZipArchive(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            this.length = this.channel.size();
+            this.entries = Collections.unmodifiableList(this.readCentralDirectory());
+        } catch (IOException | RuntimeException e) {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    public static ZipArchive open(Path path) throws IOException {
+        return new ZipArchive(path);
+    }
+
+    /**
+     * @return all central directory entries in their original order, including duplicates
+     */
+    public List<ZipArchiveEntry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * @return the uncompressed content of the entry
+     */
+    public byte[] read(ZipArchiveEntry entry) throws IOException {
+        if (entry.size() > Integer.MAX_VALUE - 8) throw new ZipException("Entry is too large: " + entry.name());
+        ByteBuffer raw = this.readRaw(entry);
+        switch (entry.method()) {
+            case ZipEntry.STORED -> {
+                byte[] bytes = new byte[raw.remaining()];
+                raw.get(bytes);
+                return bytes;
+            }
+            case ZipEntry.DEFLATED -> {
+                // Sizes are known from the central directory, inflate straight into the final array
+                byte[] bytes = new byte[(int) entry.size()];
+                Inflater inflater = new Inflater(true);
+                try {
+                    inflater.setInput(raw);
+                    int offset = 0;
+                    while (offset < bytes.length) {
+                        int read = inflater.inflate(bytes, offset, bytes.length - offset);
+                        if (read == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary()))
+                            throw new ZipException("Truncated entry: " + entry.name());
+                        offset += read;
+                    }
+                    return bytes;
+                } catch (DataFormatException e) {
+                    throw new ZipException("Invalid deflate data in entry " + entry.name() + ": " + e.getMessage());
+                } finally {
+                    inflater.end();
+                }
+            }
+            default -> throw new ZipException("Unsupported compression method " + entry.method() + " in entry " + entry.name());
+        }
+    }
+
+    /**
+     * @return the entry data exactly as it's stored in the archive
+     */
+    public ByteBuffer readRaw(ZipArchiveEntry entry) throws IOException {
+        if (entry.isEncrypted()) throw new ZipException("Encrypted entries are not supported: " + entry.name());
+        if (entry.compressedSize() > Integer.MAX_VALUE) throw new ZipException("Entry is too large: " + entry.name());
+        return this.slice(this.getDataOffset(entry), (int) entry.compressedSize());
+    }
+
+    /**
+     * @return offset of the first data byte of the entry, right after its local header
+     */
+    public long getDataOffset(ZipArchiveEntry entry) throws IOException {
+        ByteBuffer header = this.slice(entry.localHeaderOffset(), LOC_HEADER_SIZE);
+        if (header.getInt(0) != LOC_SIG) throw new ZipException("Invalid local header for entry " + entry.name());
+        return entry.localHeaderOffset() + LOC_HEADER_SIZE + Short.toUnsignedInt(header.getShort(26)) + Short.toUnsignedInt(header.getShort(28));
+    }
+
+    /**
+     * @return little endian buffer holding {@code length} bytes of the archive starting at {@code position}
+     */
+    protected ByteBuffer slice(long position, int length) throws IOException {
+        if (position < 0 || position + length > this.length) throw new EOFException("Read beyond the end of the archive");
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (this.channel.read(buffer, position + buffer.position()) < 0) throw new EOFException("Unexpected end of archive");
+        }
+        return buffer.flip();
+    }
+
+    private List<ZipArchiveEntry> readCentralDirectory() throws IOException {
+        // End of central directory record is followed by a comment of at most 65535 bytes
+        int tailLength = (int) Math.min(this.length, END_HEADER_SIZE + 0xFFFF);
+        ByteBuffer tail = this.slice(this.length - tailLength, tailLength);
+        int endOffset = -1;
+        for (int i = tailLength - END_HEADER_SIZE; i >= 0; i--) {
+            if (tail.getInt(i) == END_SIG) {
+                endOffset = i;
+                break;
+            }
+        }
+        if (endOffset == -1) throw new ZipException("Cannot find the end of central directory record");
+
+        long entryCount = Short.toUnsignedLong(tail.getShort(endOffset + 10));
+        long directorySize = Integer.toUnsignedLong(tail.getInt(endOffset + 12));
+        long directoryOffset = Integer.toUnsignedLong(tail.getInt(endOffset + 16));
+
+        long endPosition = this.length - tailLength + endOffset;
+        if ((entryCount == 0xFFFF || directorySize == 0xFFFFFFFFL || directoryOffset == 0xFFFFFFFFL) && endPosition >= ZIP64_LOC_SIZE) {
+            ByteBuffer locator = this.slice(endPosition - ZIP64_LOC_SIZE, ZIP64_LOC_SIZE);
+            if (locator.getInt(0) == ZIP64_LOC_SIG) {
+                ByteBuffer zip64End = this.slice(locator.getLong(8), 56);
+                if (zip64End.getInt(0) != ZIP64_END_SIG) throw new ZipException("Invalid ZIP64 end of central directory record");
+                entryCount = zip64End.getLong(32);
+                directorySize = zip64End.getLong(40);
+                directoryOffset = zip64End.getLong(48);
+            }
+        }
+        if (directorySize > Integer.MAX_VALUE || entryCount > Integer.MAX_VALUE) throw new ZipException("Central directory is too large");
+
+        ByteBuffer directory = this.slice(directoryOffset, (int) directorySize);
+        final List<ZipArchiveEntry> list = new ArrayList<>((int) Math.min(entryCount, directorySize / CEN_HEADER_SIZE));
+        int pos = 0;
+        while (pos < directory.limit()) {
+            // Entries after a broken header can't be found, the archive has to be read some other way
+            if (pos + CEN_HEADER_SIZE > directory.limit() || directory.getInt(pos) != CEN_SIG)
+                throw new ZipException("Invalid central directory header at offset " + (directoryOffset + pos));
+            int flags = Short.toUnsignedInt(directory.getShort(pos + 8));
+            int method = Short.toUnsignedInt(directory.getShort(pos + 10));
+            int dosTime = directory.getInt(pos + 12);
+            long crc = Integer.toUnsignedLong(directory.getInt(pos + 16));
+            long compressedSize = Integer.toUnsignedLong(directory.getInt(pos + 20));
+            long size = Integer.toUnsignedLong(directory.getInt(pos + 24));
+            int nameLength = Short.toUnsignedInt(directory.getShort(pos + 28));
+            int extraLength = Short.toUnsignedInt(directory.getShort(pos + 30));
+            int commentLength = Short.toUnsignedInt(directory.getShort(pos + 32));
+            long localHeaderOffset = Integer.toUnsignedLong(directory.getInt(pos + 42));
+            if (pos + CEN_HEADER_SIZE + nameLength + extraLength + commentLength > directory.limit())
+                throw new ZipException("Truncated central directory");
+
+            byte[] nameBytes = new byte[nameLength];
+            directory.get(pos + CEN_HEADER_SIZE, nameBytes);
+            String name = new String(nameBytes, StandardCharsets.UTF_8);
+
+            // ZIP64 extended information replaces the fields that overflowed, in this fixed order
+            int extra = pos + CEN_HEADER_SIZE + nameLength, extraEnd = extra + extraLength;
+            while (extra + 4 <= extraEnd) {
+                int id = Short.toUnsignedInt(directory.getShort(extra));
+                int dataSize = Short.toUnsignedInt(directory.getShort(extra + 2));
+                if (id == ZIP64_EXTRA_ID) {
+                    int field = extra + 4, fieldEnd = Math.min(field + dataSize, extraEnd);
+                    if (size == 0xFFFFFFFFL && field + 8 <= fieldEnd) { size = directory.getLong(field); field += 8; }
+                    if (compressedSize == 0xFFFFFFFFL && field + 8 <= fieldEnd) { compressedSize = directory.getLong(field); field += 8; }
+                    if (localHeaderOffset == 0xFFFFFFFFL && field + 8 <= fieldEnd) localHeaderOffset = directory.getLong(field);
+                    break;
+                }
+                extra += 4 + dataSize;
+            }
+
+            list.add(new ZipArchiveEntry(name, method, flags, crc, compressedSize, size, localHeaderOffset, dosTime));
+            pos += CEN_HEADER_SIZE + nameLength + extraLength + commentLength;
+        }
+        return list;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
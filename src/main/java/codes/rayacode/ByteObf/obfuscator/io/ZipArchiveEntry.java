@@ -0,0 +1,62 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package codes.rayacode.ByteObf.obfuscator.io;
+
+import java.time.LocalDateTime;
+import java.util.zip.ZipEntry;
+
+/**
+ * A single central directory record of a {@link ZipArchive}
+ */
+public record ZipArchiveEntry(String name, int method, int flags, long crc, long compressedSize, long size, long localHeaderOffset, int dosTime) {
+
+    public boolean isDirectory() {
+        return this.name.endsWith("/");
+    }
+
+    public boolean isClass() {
+        return this.name.endsWith(".class");
+    }
+
+    public boolean isEncrypted() {
+        return (this.flags & 1) != 0;
+    }
+
+    public ZipEntry toZipEntry() {
+        ZipEntry zipEntry = new ZipEntry(this.name);
+        zipEntry.setMethod(this.method);
+        zipEntry.setCrc(this.crc);
+        zipEntry.setSize(this.size);
+        zipEntry.setCompressedSize(this.compressedSize);
+        LocalDateTime time = this.getLocalTime();
+        if (time != null) zipEntry.setTimeLocal(time);
+        return zipEntry;
+    }
+
+    private LocalDateTime getLocalTime() {
+        int date = this.dosTime >>> 16, time = this.dosTime & 0xFFFF;
+        try {
+            return LocalDateTime.of(((date >> 9) & 0x7F) + 1980, (date >> 5) & 0x0F, date & 0x1F,
+                    (time >> 11) & 0x1F, (time >> 5) & 0x3F, (time << 1) & 0x3E);
+        } catch (RuntimeException e) {
+            // Zeroed or corrupt DOS timestamps are common, they carry no useful information
+            return null;
+        }
+    }
+}
@@ -19,19 +19,33 @@
 package codes.rayacode.ByteObf.obfuscator.transformer;
 
 import codes.rayacode.ByteObf.obfuscator.ByteObf;
+import codes.rayacode.ByteObf.obfuscator.io.JarWriter;
+import codes.rayacode.ByteObf.obfuscator.utils.ASMUtils;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfCategory;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfConfig;
+import codes.rayacode.ByteObf.obfuscator.utils.model.CodeSizes;
+import codes.rayacode.ByteObf.obfuscator.utils.model.GrowthBudget;
+import codes.rayacode.ByteObf.obfuscator.utils.model.MethodAnalyses;
+import codes.rayacode.ByteObf.obfuscator.utils.model.MethodAnalysis;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ResourceWrapper;
+import codes.rayacode.ByteObf.obfuscator.utils.model.TransformPart;
+import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.InsnList;
 import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.analysis.BasicValue;
+import org.objectweb.asm.tree.analysis.Frame;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Random;
-import java.util.jar.JarOutputStream;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 public abstract class ClassTransformer implements Opcodes {
@@ -39,7 +53,14 @@ public abstract class ClassTransformer implements Opcodes {
     private final ByteObf byteObf;
     private final String text;
     private final ByteObfCategory category;
-    protected final Random random = new Random();
+    private static final ThreadLocal<ClassContext> classContext = new ThreadLocal<>();
+    private static final int MAX_STACK = 65535;
+    private Random random;
+
+    /**
+     * State of the class being transformed on a thread
+     */
+    private record ClassContext(Random random, CodeSizes codeSizes, MethodAnalyses analyses, GrowthBudget growthBudget) { }
 
     public ClassTransformer(ByteObf byteObf, String text, ByteObfCategory category) {
         this.byteObf = byteObf;
@@ -47,6 +68,150 @@ public abstract class ClassTransformer implements Opcodes {
         this.category = category;
     }
 
+    /**
+     * @return random source of the class being transformed on this thread, or the transformer's own one outside of class transformation.
+     * Both are derived from the run seed, so results don't depend on the order or the thread classes are transformed in.
+     */
+    protected final Random random() {
+        final ClassContext context = classContext.get();
+        if (context != null) return context.random();
+        if (this.random == null) this.random = new Random(seed(this.getSeed(), this.getName(), ""));
+        return this.random;
+    }
+
+    void beginClass(String className, CodeSizes codeSizes, MethodAnalyses analyses, GrowthBudget growthBudget) {
+        classContext.set(new ClassContext(new Random(seed(this.getSeed(), this.getName(), className)), codeSizes, analyses, growthBudget));
+    }
+
+    void endClass() {
+        classContext.remove();
+    }
+
+    /**
+     * @return upper bound of the code size of the method, kept up to date by the insert and remove methods below
+     */
+    protected final int getCodeSize(MethodNode methodNode) {
+        final ClassContext context = classContext.get();
+        return context != null && context.codeSizes() != null ? context.codeSizes().get(methodNode) : ASMUtils.getCodeSize(methodNode);
+    }
+
+    /**
+     * @return frames of the method, shared by the transformers of the class. Changes made through the
+     * insert and remove methods below leave the returned analysis valid for the instructions it knows, as long as the operand stack
+     * of those instructions stays as it was. The next call analyzes the changed method again.
+     */
+    protected final MethodAnalysis analyze(ClassNode classNode, MethodNode methodNode) {
+        final ClassContext context = classContext.get();
+        return context != null && context.analyses() != null ? context.analyses().get(classNode.name, methodNode) : MethodAnalysis.analyze(classNode.name, methodNode);
+    }
+
+    /**
+     * Code added around an instruction that jumps back and forth, so it's only added where the frame is known and nothing on the stack
+     * or in the locals keeps the frames from being computed and verified: return addresses of subroutines, and in classes
+     * checked by the old inferring verifier, objects that aren't constructed yet, which it doesn't allow along backward jumps.
+     * Unreachable code and code that doesn't verify have no frames. Inside try catch blocks, the added code can also throw to
+     * the handlers, so their frames are held to the same rules.
+     *
+     * @param maxExtraStack most stack slots the added code pushes on top of the stack it finds before the instruction
+     */
+    protected static boolean isInjectable(ClassNode classNode, MethodAnalysis analysis, AbstractInsnNode insn, int maxExtraStack) {
+        final Frame<BasicValue> frame = analysis.getFrame(insn);
+        if (frame == null) return false;
+        final boolean inferred = (classNode.version & 0xFFFF) < V1_6;
+        if (!hasPlainLocals(frame, inferred)) return false;
+        for (Frame<BasicValue> handlerFrame : analysis.getHandlerFrames(insn))
+            if (handlerFrame == null || !hasPlainLocals(handlerFrame, inferred)) return false;
+        int stackSize = 0;
+        for (int i = 0; i < frame.getStackSize(); i++) {
+            final BasicValue value = frame.getStack(i);
+            if (!isPlainValue(value, inferred)) return false;
+            stackSize += value.getSize();
+        }
+        return stackSize + maxExtraStack <= MAX_STACK;
+    }
+
+    private static boolean hasPlainLocals(Frame<BasicValue> frame, boolean inferred) {
+        for (int i = 0; i < frame.getLocals(); i++)
+            if (!isPlainValue(frame.getLocal(i), inferred)) return false;
+        return true;
+    }
+
+    private static boolean isPlainValue(BasicValue value, boolean inferred) {
+        return !BasicValue.RETURNADDRESS_VALUE.equals(value) && !(inferred && MethodAnalysis.isUninitialized(value));
+    }
+
+    private void addCodeSize(MethodNode methodNode, int delta, int overhead) {
+        final ClassContext context = classContext.get();
+        if (context == null) return;
+        if (context.analyses() != null) context.analyses().invalidate(methodNode);
+        if (context.codeSizes() != null) context.codeSizes().add(methodNode, delta);
+        if (context.growthBudget() != null) context.growthBudget().spend(delta, delta + overhead);
+    }
+
+    /**
+     * Decides whether to inject code at the next injection point of the method being transformed. Points are picked
+     * so the growth budget of the class is spread over all of its methods, without a budget at the transformer's {@link #getInjectionRate()}.
+     * @param maxGrowth upper bound of the code the injection adds, the method's {@link #getMaxCodeGrowth(ClassNode, MethodNode)} is the sum of these
+     */
+    protected final boolean shouldInject(int maxGrowth) {
+        final ClassContext context = classContext.get();
+        if (context == null || context.growthBudget() == null) {
+            final double rate = this.getInjectionRate();
+            return rate >= 1 || this.random().nextDouble() <= rate;
+        }
+        return context.growthBudget().tryInject(context.random(), maxGrowth);
+    }
+
+    /**
+     * @return whether the class being transformed has a growth budget. Without one, transformers keep to their own size guards.
+     */
+    protected final boolean hasGrowthBudget() {
+        final ClassContext context = classContext.get();
+        return context != null && context.growthBudget() != null;
+    }
+
+    /**
+     * @return share of injection points that are picked when growth isn't budgeted
+     */
+    protected double getInjectionRate() {
+        return 1;
+    }
+
+    protected final void insert(MethodNode methodNode, InsnList insnList) {
+        this.addCodeSize(methodNode, ASMUtils.getCodeSize(insnList), ASMUtils.getClassFileOverhead(insnList));
+        methodNode.instructions.insert(insnList);
+    }
+
+    protected final void insert(MethodNode methodNode, AbstractInsnNode location, InsnList insnList) {
+        this.addCodeSize(methodNode, ASMUtils.getCodeSize(insnList), ASMUtils.getClassFileOverhead(insnList));
+        methodNode.instructions.insert(location, insnList);
+    }
+
+    protected final void insertBefore(MethodNode methodNode, AbstractInsnNode location, InsnList insnList) {
+        this.addCodeSize(methodNode, ASMUtils.getCodeSize(insnList), ASMUtils.getClassFileOverhead(insnList));
+        methodNode.instructions.insertBefore(location, insnList);
+    }
+
+    protected final void remove(MethodNode methodNode, AbstractInsnNode insn) {
+        this.addCodeSize(methodNode, -ASMUtils.getCodeSize(insn), 0);
+        methodNode.instructions.remove(insn);
+    }
+
+    private long getSeed() {
+        final TransformManager transformManager = this.byteObf.getTransformHandler();
+        return transformManager != null ? transformManager.getSeed() : 0L;
+    }
+
+    private static long seed(long seed, String transformerName, String className) {
+        long h = seed;
+        h = 31 * h + transformerName.hashCode();
+        h = 31 * h + className.hashCode();
+        // SplitMix64 finalizer, neighbouring class names shouldn't get correlated sequences
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+
     public void pre() {}
     public void post() {}
     public void transformClass(ClassNode classNode) {}
@@ -54,9 +219,56 @@ public abstract class ClassTransformer implements Opcodes {
     public void transformField(ClassNode classNode, FieldNode fieldNode) {}
     public void transformResource(ResourceWrapper resource) {}
     public boolean transformOutput(ClassNode classNode) { return true; }
-    public void transformOutput(JarOutputStream jarOutputStream) {}
+    public void transformOutput(JarWriter jarWriter) {}
     public void transformClassWriter(ClassWriter classWriter) {}
 
+    /**
+     * @return upper bound of the bytes {@link #transformMethod(ClassNode, MethodNode)} can add to the code of the method,
+     * or -1 if it's unknown. Methods that stay below the size limit even after the largest growth aren't kept to be reverted.
+     * Transformers that return a bound have to change code through the insert and remove methods,
+     * the growth budget of a class is shared between transformers and methods by these bounds.
+     */
+    public int getMaxCodeGrowth(ClassNode classNode, MethodNode methodNode) {
+        return -1;
+    }
+
+    /**
+     * @return adapter that applies this transformer while a class file is copied, or null if the transformer needs the class tree.
+     * A class is only parsed into a tree if one of the transformers that apply to it has no adapter.
+     */
+    public ClassVisitor createVisitor(ClassVisitor classVisitor) {
+        return null;
+    }
+
+    /**
+     * @return whether {@link #createVisitor(ClassVisitor)} returns an adapter
+     */
+    public boolean hasVisitor() {
+        return false;
+    }
+
+    /**
+     * @return whether this transformer works on class trees. Transformers that only touch the output
+     * don't need classes to be parsed for them.
+     */
+    public boolean isTransformingClasses() {
+        return true;
+    }
+
+    /**
+     * @return parts this transformer reads, by default the parts it changes
+     */
+    public Set<TransformPart> getReads() {
+        return this.getWrites();
+    }
+
+    /**
+     * @return parts this transformer changes. Transformers that don't declare their parts are ordered against all others.
+     */
+    public Set<TransformPart> getWrites() {
+        return EnumSet.allOf(TransformPart.class);
+    }
+
     public final ByteObf getByteObf() {
         return byteObf;
     }
@@ -88,12 +300,13 @@ public abstract class ClassTransformer implements Opcodes {
     }
 
     protected ClassNode findClass(String className) {
-        return this.getByteObf().getClasses().stream().filter(cn -> cn.name.equals(className)).findFirst().orElse(null);
+        return this.getByteObf().getClassIndex().getClassNode(className);
     }
 
     protected List<ClassNode> findClasses(List<String> classNames) {
-        return this.getByteObf().getClasses().stream()
-                .filter(cn -> classNames.contains(cn.name))
+        return classNames.stream()
+                .map(this::findClass)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
@@ -22,13 +22,16 @@ import codes.rayacode.ByteObf.obfuscator.ByteObf;
 import codes.rayacode.ByteObf.obfuscator.utils.ASMUtils;
 import codes.rayacode.ByteObf.obfuscator.utils.InsnBuilder;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfCategory;
+import codes.rayacode.ByteObf.obfuscator.utils.model.MethodAnalysis;
+import codes.rayacode.ByteObf.obfuscator.utils.model.TransformPart;
 import org.objectweb.asm.tree.*;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Random;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.Set;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -39,10 +42,35 @@ public abstract class ControlFlowTransformer extends ClassTransformer {
         super(byteObf, text, category);
     }
 
+    // Largest code that can be added around one target instruction, with every jump widened
+    protected static final int MAX_TARGET_GROWTH = 200;
+    // Most stack slots the code added around one target instruction pushes on top of the stack it finds there
+    protected static final int MAX_TARGET_STACK = 4;
+
+    protected static boolean isTarget(AbstractInsnNode insn) {
+        return ASMUtils.isInvokeMethod(insn, true) || insn.getOpcode() == NEW || ASMUtils.isFieldInsn(insn);
+    }
+
+    protected static boolean isInjectable(ClassNode classNode, MethodAnalysis analysis, AbstractInsnNode insn) {
+        return isInjectable(classNode, analysis, insn, MAX_TARGET_STACK);
+    }
+
+    protected static int getMaxTargetGrowth(ClassNode classNode, MethodAnalysis analysis, MethodNode methodNode) {
+        long growth = 0;
+        for (AbstractInsnNode insn : methodNode.instructions)
+            if (isTarget(insn) && isInjectable(classNode, analysis, insn)) growth += MAX_TARGET_GROWTH;
+        return (int) Math.min(growth, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Set<TransformPart> getWrites() {
+        return EnumSet.of(TransformPart.MEMBERS, TransformPart.CODE);
+    }
+
     protected static final record SwitchBlock(LabelNode labelNode, InsnList insnList) {
-        public SwitchBlock() {
+        public SwitchBlock(Random random) {
             this(new LabelNode(), new InsnList());
-            this.insnList.add(getRandomLongDiv());
+            this.insnList.add(getRandomLongDiv(random));
         }
 
         public SwitchBlock(InsnList insnList) {
@@ -50,16 +78,16 @@ public abstract class ControlFlowTransformer extends ClassTransformer {
         }
     }
 
-    protected static InsnList getRandomLookupSwitch(final int switchSize, final int targetKey, final SwitchBlock targetBlock, final InsnList defInstructions) {
-        return getRandomLookupSwitch(switchSize, targetKey, targetBlock, SwitchBlock::new, defInstructions);
+    protected static InsnList getRandomLookupSwitch(final Random random, final int switchSize, final int targetKey, final SwitchBlock targetBlock, final InsnList defInstructions) {
+        return getRandomLookupSwitch(random, switchSize, targetKey, targetBlock, () -> new SwitchBlock(random), defInstructions);
     }
 
-    protected static InsnList getRandomLookupSwitch(final int switchSize, final int targetKey, final SwitchBlock targetBlock, final Supplier<SwitchBlock> dummyBlock, final InsnList defInstructions) {
+    protected static InsnList getRandomLookupSwitch(final Random random, final int switchSize, final int targetKey, final SwitchBlock targetBlock, final Supplier<SwitchBlock> dummyBlock, final InsnList defInstructions) {
         final InsnList il = new InsnList();
         var switchDefaultLabel = new LabelNode();
         var switchEndLabel = new LabelNode();
         var switchBlocks = IntStream.range(0, switchSize).mapToObj(v -> dummyBlock.get()).collect(Collectors.toList());
-        var keyList = getUniqueRandomIntArray(switchSize - 1);
+        var keyList = getUniqueRandomIntArray(random, switchSize - 1);
 
         {
             keyList.add(targetKey);
@@ -79,18 +107,18 @@ public abstract class ControlFlowTransformer extends ClassTransformer {
         return il;
     }
 
-    protected static List<Integer> getUniqueRandomIntArray(int size) {
+    protected static List<Integer> getUniqueRandomIntArray(Random random, int size) {
         var baseList = new ArrayList<Integer>();
         for (int i = 0; i < size; i++) {
             int j;
             do {
-                j = ThreadLocalRandom.current().nextInt();
+                j = random.nextInt();
             } while (baseList.contains(j));
             baseList.add(j);
         } return baseList;
     }
 
-    protected static InsnList getRandomLongDiv() {
-        return InsnBuilder.createEmpty().insn(ASMUtils.pushLong(new Random().nextLong()), new InsnNode(LDIV)).getInsnList();
+    protected static InsnList getRandomLongDiv(Random random) {
+        return InsnBuilder.createEmpty().insn(ASMUtils.pushLong(random.nextLong()), new InsnNode(LDIV)).getInsnList();
     }
 }
\ No newline at end of file
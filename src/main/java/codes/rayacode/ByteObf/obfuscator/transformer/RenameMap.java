@@ -0,0 +1,106 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package codes.rayacode.ByteObf.obfuscator.transformer;
+
+import codes.rayacode.ByteObf.obfuscator.utils.model.SymbolTable;
+import org.objectweb.asm.commons.Remapper;
+
+import java.util.*;
+
+/**
+ * New names chosen by the renamers, classes by internal name and members by {@link SymbolTable.MemberKey}.
+ * Looking up a member doesn't build a string, and members of owners that had nothing renamed fail on the first lookup.
+ */
+public class RenameMap extends Remapper {
+
+    private final SymbolTable symbols;
+    private final Map<String, String> classes = new HashMap<>();
+    private final Map<SymbolTable.MemberKey, String> members = new HashMap<>();
+    // Owners of renamed members, keys of every class rename map they can be accessed through
+    private final Set<String> owners = new HashSet<>();
+
+    public RenameMap(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    public void putClass(String name, String newName) {
+        this.classes.put(name, newName);
+    }
+
+    public boolean hasClass(String name) {
+        return this.classes.containsKey(name);
+    }
+
+    public void putField(String owner, String name, String newName) {
+        this.members.put(this.symbols.fieldKey(owner, name), newName);
+        this.owners.add(owner);
+    }
+
+    public void putMethod(String owner, String name, String descriptor, String newName) {
+        this.members.put(this.symbols.methodKey(owner, name, descriptor), newName);
+        this.owners.add(owner);
+    }
+
+    public void putAll(RenameMap renameMap) {
+        this.classes.putAll(renameMap.classes);
+        this.members.putAll(renameMap.members);
+        this.owners.addAll(renameMap.owners);
+    }
+
+    /**
+     * @return old internal name -> new internal name
+     */
+    public Map<String, String> getClasses() {
+        return Collections.unmodifiableMap(this.classes);
+    }
+
+    /**
+     * @return renamed classes and owners of renamed members, a class that mentions none of them isn't changed by the remapper
+     */
+    public Set<String> getRenamedOwners() {
+        final Set<String> renamedOwners = new HashSet<>(this.classes.keySet());
+        renamedOwners.addAll(this.owners);
+        return renamedOwners;
+    }
+
+    @Override
+    public String map(String internalName) {
+        return this.classes.get(internalName);
+    }
+
+    @Override
+    public String mapFieldName(String owner, String name, String descriptor) {
+        final SymbolTable.MemberKey key = this.symbols.findField(owner, name);
+        final String newName = key != null ? this.members.get(key) : null;
+        return newName != null ? newName : name;
+    }
+
+    @Override
+    public String mapRecordComponentName(String owner, String name, String descriptor) {
+        // Components are renamed with their fields
+        return this.mapFieldName(owner, name, descriptor);
+    }
+
+    @Override
+    public String mapMethodName(String owner, String name, String descriptor) {
+        final SymbolTable.MemberKey key = this.symbols.findMethod(owner, name, descriptor);
+        final String newName = key != null ? this.members.get(key) : null;
+        return newName != null ? newName : name;
+    }
+}
@@ -19,57 +19,55 @@
 package codes.rayacode.ByteObf.obfuscator.transformer;
 
 import codes.rayacode.ByteObf.obfuscator.ByteObf;
-import codes.rayacode.ByteObf.obfuscator.utils.StringUtils;
+import codes.rayacode.ByteObf.obfuscator.transformer.impl.renamer.NameGenerator;
+import codes.rayacode.ByteObf.obfuscator.transformer.impl.renamer.RenamePlanner;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfCategory;
-
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfConfig;
 
 public abstract class RenamerTransformer extends ClassTransformer {
 
-    protected final HashMap<String, String> map = new HashMap<>();
-    protected int index = 0;
+    private RenameMap map;
+    protected long index = 0;
 
     public RenamerTransformer(ByteObf byteObf, String text, ByteObfCategory category) {
         super(byteObf, text, category);
     }
 
-    protected String registerMap(String key) {
-        var str = switch (this.getByteObf().getConfig().getOptions().getRename()) {
-            case ALPHABET -> StringUtils.getAlphabetCombinations().get(index);
-            case INVISIBLE -> String.valueOf((char)(index + '\u3050'));
-            case IlIlIlIlIl -> getRandomUniqueIl(400);
-            default -> throw new IllegalStateException("transformClass called while rename is disabled, this shouldn't happen");
-        };
-        map.put(key, str); index++;
-        return str;
+    /**
+     * Fills the rename map. Called once, the classes themselves are only renamed when they are written.
+     */
+    public abstract void prepare();
+
+    @Override
+    public boolean isTransformingClasses() {
+        return false;
     }
 
-    private final List<String> IlList = new ArrayList<>();
-    private String getRandomUniqueIl(int length) {
-        String s;
-        do {
-            s = IntStream.range(0, length)
-                    .mapToObj(i -> (ThreadLocalRandom.current().nextBoolean()) ? "I" : "l")
-                    .collect(Collectors.joining());
-        } while (IlList.contains(s));
-        IlList.add(s);
-        return s;
+    /**
+     * Names the groups of the planner and maps every member of each group to its new name
+     */
+    protected void registerGroups(RenamePlanner planner) {
+        final var rename = this.getByteObf().getConfig().getOptions().getRename();
+        planner.assignNames(index -> NameGenerator.getName(rename, index),
+                this.getByteObf().getConfig().getPerformanceOptions().isReuseMemberNames(), this.getMap());
     }
 
-    protected boolean isMapRegistered(String key) {
-        return map.get(key) != null;
+    protected int getThreadCount() {
+        return this.getByteObf().getConfig().getPerformanceOptions().getThreadCount();
     }
 
-    protected void registerMap(String key, String value) {
-        map.put(key, value);
+    protected String registerClass(String name) {
+        final var rename = this.getByteObf().getConfig().getOptions().getRename();
+        if (rename == ByteObfConfig.ByteObfOptions.RenameOption.OFF)
+            throw new IllegalStateException("registerClass called while rename is disabled, this shouldn't happen");
+        final String newName = NameGenerator.getName(rename, index++);
+        this.getMap().putClass(name, newName);
+        return newName;
     }
 
-    public HashMap<String, String> getMap() {
-        return map;
+    public RenameMap getMap() {
+        // Created on first use, transformers are also instantiated without a ByteObf for the UI
+        if (this.map == null) this.map = new RenameMap(this.getByteObf().getSymbols());
+        return this.map;
     }
-}
\ No newline at end of file
+}
@@ -19,6 +19,7 @@
 package codes.rayacode.ByteObf.obfuscator.transformer;
 
 import codes.rayacode.ByteObf.obfuscator.ByteObf;
+import codes.rayacode.ByteObf.obfuscator.hierarchy.ClassNameMap;
 import codes.rayacode.ByteObf.obfuscator.transformer.impl.*;
 import codes.rayacode.ByteObf.obfuscator.transformer.impl.renamer.ClassRenamerTransformer;
 import codes.rayacode.ByteObf.obfuscator.transformer.impl.renamer.FieldRenamerTransformer;
@@ -28,25 +29,43 @@ import codes.rayacode.ByteObf.obfuscator.transformer.impl.watermark.TextInsideCl
 import codes.rayacode.ByteObf.obfuscator.transformer.impl.watermark.UnusedStringTransformer;
 import codes.rayacode.ByteObf.obfuscator.transformer.impl.watermark.ZipCommentTransformer;
 import codes.rayacode.ByteObf.obfuscator.utils.ASMUtils;
+import codes.rayacode.ByteObf.obfuscator.utils.StringUtils;
+import codes.rayacode.ByteObf.obfuscator.utils.ThreadUtils;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfConfig;
+import codes.rayacode.ByteObf.obfuscator.utils.model.ClassWrapper;
+import codes.rayacode.ByteObf.obfuscator.utils.model.CodeSizes;
+import codes.rayacode.ByteObf.obfuscator.utils.model.GrowthBudget;
+import codes.rayacode.ByteObf.obfuscator.utils.model.MethodAnalyses;
+import codes.rayacode.ByteObf.obfuscator.utils.model.MethodSnapshot;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.commons.ClassRemapper;
-import org.objectweb.asm.commons.SimpleRemapper;
-import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.MethodNode;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import java.security.SecureRandom;
+import java.text.DecimalFormat;
+import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 public class TransformManager {
 
     private final ByteObf byteObf;
     private final List<ClassTransformer> classTransformers = new ArrayList<>();
+    private final ClassNameMap classNameMap = new ClassNameMap();
+    private final long seed;
+    private TransformSchedule schedule;
+    // Set when something was renamed, classes are remapped while they are written
+    private RenameMap renameMap;
+    private Set<String> renamedOwners;
 
     public TransformManager(ByteObf byteObf) {
         this.byteObf = byteObf;
+        final Long configuredSeed = byteObf.getConfig().getPerformanceOptions().getSeed();
+        this.seed = configuredSeed != null ? configuredSeed : new SecureRandom().nextLong();
         this.classTransformers.addAll(getTransformers().stream()
                 .map(clazz -> {
                     try {
@@ -91,61 +110,226 @@ public class TransformManager {
     }
 
     public void transformAll() {
-        // Apply renamer transformers
-        var map = new HashMap<String, String>();
-        this.classTransformers.stream()
+        this.planParsing();
+
+        // Renamers run before the other transformers, whatever their configured order, so that order is checked first
+        final List<ClassTransformer> enabled = this.classTransformers.stream()
                 .filter(ClassTransformer::isEnabled)
+                .collect(Collectors.toList());
+        final List<ClassTransformer> renamers = enabled.stream()
                 .filter(ct -> ct instanceof RenamerTransformer)
+                .collect(Collectors.toList());
+        final List<ClassTransformer> transformers = enabled.stream()
+                .filter(ct -> !(ct instanceof RenamerTransformer))
+                .collect(Collectors.toList());
+        this.schedule = new TransformSchedule(enabled);
+        this.schedule.validate(Stream.concat(renamers.stream(), transformers.stream()).collect(Collectors.toList()));
+
+        // Apply renamer transformers
+        final RenameMap map = new RenameMap(this.byteObf.getSymbols());
+        renamers.stream()
                 .map(ct -> (RenamerTransformer)ct)
                 .forEach(crt -> {
                     this.byteObf.log("Applying renamer %s", crt.getName());
-                    this.byteObf.getClasses().forEach(classNode -> this.transform(classNode, crt.getClass()));
+                    crt.prepare();
                     this.byteObf.getResources().forEach(crt::transformResource);
-                    map.putAll(crt.map);
+                    map.putAll(crt.getMap());
                 });
+        this.getClassTransformer(ClassRenamerTransformer.class).getMap().getClasses().forEach(this.classNameMap::put);
 
-        // Remap classes
+        // Classes keep their input names until they are written, the new names are applied on the way out by remap
         if(this.byteObf.getConfig().getOptions().getRename() != ByteObfConfig.ByteObfOptions.RenameOption.OFF) {
-            this.byteObf.log("Applying renamer...");
-            var reMapper = new SimpleRemapper(map);
-            for (int i = 0; i < this.byteObf.getClasses().size(); i++) {
-                ClassNode classNode = this.byteObf.getClasses().get(i);
-                ClassNode remappedClassNode = new ClassNode();
-                ClassRemapper adapter = new ClassRemapper(remappedClassNode, reMapper);
-                classNode.accept(adapter);
-                this.byteObf.getClasses().set(i, remappedClassNode);
-            }
+            this.renameMap = map;
+            this.renamedOwners = map.getRenamedOwners();
         }
 
         // Pre
-        this.classTransformers.stream()
-                .filter(ClassTransformer::isEnabled)
-                .forEach(ClassTransformer::pre);
+        enabled.forEach(ClassTransformer::pre);
 
-        // Transform all classes
-        this.classTransformers.stream()
-                .filter(ClassTransformer::isEnabled)
-                .filter(ct -> !(ct instanceof RenamerTransformer))
-                .forEach(ct -> {
-                    this.byteObf.log("Applying %s", ct.getName());
-                    this.byteObf.getClasses().forEach(classNode -> this.transform(classNode, ct.getClass()));
-                    this.byteObf.getResources().forEach(ct::transformResource);
-                });
+        // Transform all classes, every class goes through all transformers at once and only depends on itself,
+        // so the classes can be spread over the workers
+        final List<ClassTransformer> classTransformers = transformers.stream()
+                .filter(ClassTransformer::isTransformingClasses)
+                .collect(Collectors.toList());
+        final var performanceOptions = this.byteObf.getConfig().getPerformanceOptions();
+        final int threads = performanceOptions.isParallelTransform() ? performanceOptions.getThreadCount() : 1;
+        transformers.forEach(ct -> this.byteObf.log("Applying %s", ct.getName()));
+        this.byteObf.log("Transforming with seed %d on %d threads", this.seed, threads);
+        if (!classTransformers.isEmpty()) {
+            final Map<ClassWrapper, GrowthBudget> growthBudgets = this.allocateGrowthBudgets(classTransformers, threads);
+            ThreadUtils.forEach("transformer", threads, this.byteObf.getClassWrappers(),
+                    classWrapper -> this.transform(classWrapper, classTransformers, growthBudgets.get(classWrapper)));
+        }
+        transformers.forEach(ct -> this.byteObf.getResources().forEach(ct::transformResource));
 
         // Post
-        this.classTransformers.stream()
+        enabled.forEach(ClassTransformer::post);
+    }
+
+    /**
+     * Plans how much code the transformers may add to each parsed class. The demand of a class is the sum of the growth bounds
+     * of the transformers on its methods, classes that are streamed never grow.
+     * @return budget of every parsed class, empty if growth isn't limited
+     */
+    private Map<ClassWrapper, GrowthBudget> allocateGrowthBudgets(List<ClassTransformer> transformers, int threads) {
+        final var performanceOptions = this.byteObf.getConfig().getPerformanceOptions();
+        final int classLimit = performanceOptions.getClassGrowthBudget(), jarLimit = performanceOptions.getJarGrowthBudget();
+        if (classLimit <= 0 && jarLimit <= 0) return Map.of();
+
+        final List<ClassWrapper> classWrappers = this.byteObf.getClassWrappers().stream()
+                .filter(ClassWrapper::isMaterialized)
+                .collect(Collectors.toList());
+        final long[][] plannedDemands = new long[classWrappers.size()][];
+        ThreadUtils.forEach("planner", threads, IntStream.range(0, classWrappers.size()).boxed().collect(Collectors.toList()),
+                i -> plannedDemands[i] = this.getPlannedDemands(classWrappers.get(i).getClassNode(), transformers));
+
+        final long[] sizes = new long[classWrappers.size()], demands = new long[classWrappers.size()];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = classWrappers.get(i).getBytes().length;
+            demands[i] = Arrays.stream(plannedDemands[i]).sum();
+        }
+        final long[] allowances = GrowthBudget.allocate(sizes, demands, classLimit, jarLimit);
+
+        final Map<ClassWrapper, GrowthBudget> growthBudgets = new IdentityHashMap<>();
+        for (int i = 0; i < allowances.length; i++) growthBudgets.put(classWrappers.get(i), new GrowthBudget(allowances[i], plannedDemands[i]));
+        this.byteObf.log("Class growth is limited to %s over %d classes", StringUtils.getConvertedSize(Arrays.stream(allowances).sum()), allowances.length);
+        return growthBudgets;
+    }
+
+    private long[] getPlannedDemands(ClassNode classNode, List<ClassTransformer> transformers) {
+        final long[] demands = new long[transformers.size()];
+        for (int i = 0; i < demands.length; i++) {
+            final ClassTransformer classTransformer = transformers.get(i);
+            if (this.byteObf.isExcluded(classTransformer, classNode.name)) continue;
+            for (MethodNode methodNode : classNode.methods) {
+                if (this.byteObf.isExcluded(classTransformer, classNode.name, methodNode.name, methodNode.desc)) continue;
+                demands[i] += Math.max(0, classTransformer.getMaxCodeGrowth(classNode, methodNode));
+            }
+        }
+        return demands;
+    }
+
+    /**
+     * Decides how much of each class has to be parsed and parses the classes that will be transformed in parallel.
+     * Classes that every transformer excludes are never parsed and are written as they were read,
+     * classes that every transformer can stream are only ever copied through visitors.
+     */
+    private void planParsing() {
+        final List<ClassTransformer> transformers = this.classTransformers.stream()
                 .filter(ClassTransformer::isEnabled)
-                .forEach(ClassTransformer::post);
+                .filter(ClassTransformer::isTransformingClasses)
+                .collect(Collectors.toList());
+
+        final List<ClassWrapper> parsed = new ArrayList<>();
+        for (ClassWrapper classWrapper : this.byteObf.getClassWrappers()) {
+            final String className = classWrapper.getName();
+            classWrapper.setParseFlags(this.getParseFlags(className, transformers));
+            if (transformers.stream().anyMatch(ct -> !this.byteObf.isExcluded(ct, className) && !this.canStream(ct, className)))
+                parsed.add(classWrapper);
+        }
+
+        final long start = System.currentTimeMillis();
+        final int threads = this.byteObf.getConfig().getPerformanceOptions().getThreadCount();
+        ThreadUtils.forEach("parser", threads, parsed, ClassWrapper::getClassNode);
+        this.byteObf.log("Parsed %d of %d classes in %ss", parsed.size(), this.byteObf.getClassWrappers().size(),
+                new DecimalFormat("##.###").format((System.currentTimeMillis() - start) / 1000D));
+    }
+
+    private int getParseFlags(String className, List<ClassTransformer> transformers) {
+        int flags = 0;
+
+        // Frames are recomputed on write, the originals are only needed when the code is left alone
+        // and the writer has to fall back to COMPUTE_MAXS
+        if (transformers.stream().anyMatch(ct -> (ct instanceof ControlFlowTransformer || ct instanceof ConstantTransformer)
+                && !this.byteObf.isExcluded(ct, className)))
+            flags |= ClassReader.SKIP_FRAMES;
+
+        // Debug attributes that would be deleted anyway don't have to be read
+        final var options = this.byteObf.getConfig().getOptions();
+        if (options.getLineNumbers() == ByteObfConfig.ByteObfOptions.LineNumberOption.DELETE
+                && options.getLocalVariables() == ByteObfConfig.ByteObfOptions.LocalVariableOption.DELETE
+                && options.isRemoveSourceFile()
+                && Stream.of(LineNumberTransformer.class, LocalVariableTransformer.class, SourceFileTransformer.class)
+                        .map(this::getClassTransformer)
+                        .noneMatch(ct -> this.byteObf.isExcluded(ct, className) || this.byteObf.hasExcludedMembers(ct, className)))
+            flags |= ClassReader.SKIP_DEBUG;
+
+        return flags;
+    }
+
+    /**
+     * Runs the transformers in order on a class. A class that isn't parsed yet is streamed through their visitors
+     * if all of them have one, otherwise it's parsed unless every transformer excludes it.
+     */
+    private void transform(ClassWrapper classWrapper, List<? extends ClassTransformer> transformers, GrowthBudget growthBudget) {
+        final String className = classWrapper.getName();
+        final List<ClassTransformer> applied = transformers.stream()
+                .filter(ct -> !this.byteObf.isExcluded(ct, className))
+                .collect(Collectors.toList());
+        if (applied.isEmpty()) return;
+
+        if (!classWrapper.isMaterialized() && applied.stream().allMatch(ct -> this.canStream(ct, className))) {
+            this.stream(classWrapper, applied);
+            return;
+        }
+        final ClassNode classNode = classWrapper.getClassNode();
+        final CodeSizes codeSizes = new CodeSizes();
+        final MethodAnalyses analyses = new MethodAnalyses();
+        for (ClassTransformer classTransformer : applied) {
+            // Planned demands are indexed like the whole transformer list
+            if (growthBudget != null) growthBudget.beginTransformer(transformers.indexOf(classTransformer));
+            this.transform(classNode, classTransformer, codeSizes, analyses, growthBudget);
+        }
+    }
+
+    /**
+     * @return whether the transformer can be applied to the class with its visitor. Member exclusions need the tree.
+     */
+    private boolean canStream(ClassTransformer classTransformer, String className) {
+        return classTransformer.hasVisitor() && !this.byteObf.hasExcludedMembers(classTransformer, className);
+    }
+
+    /**
+     * Copies the class file through the visitors of the transformers. Renamers only read the class, nothing is written for them.
+     */
+    private void stream(ClassWrapper classWrapper, List<ClassTransformer> transformers) {
+        final ClassWriter classWriter = new ClassWriter(0);
+        ClassVisitor classVisitor = classWriter;
+        for (int i = transformers.size() - 1; i >= 0; i--) {
+            final ClassTransformer classTransformer = transformers.get(i);
+            classTransformer.beginClass(classWrapper.getName(), null, null, null);
+            try {
+                classVisitor = classTransformer.createVisitor(classVisitor);
+            } finally {
+                classTransformer.endClass();
+            }
+        }
+
+        // Code is copied as it is, so the original frames stay valid
+        new ClassReader(classWrapper.getBytes()).accept(classVisitor, classWrapper.getParseFlags() & ~ClassReader.SKIP_FRAMES);
+        classWrapper.setBytes(classWriter.toByteArray());
     }
 
     public void transform(ClassNode classNode, Class<? extends ClassTransformer> transformerClass) {
         ClassTransformer classTransformer = this.getClassTransformer(transformerClass);
         if(this.byteObf.isExcluded(classTransformer, classNode.name)) return;
+        this.transform(classNode, classTransformer, new CodeSizes(), new MethodAnalyses(), null);
+    }
+
+    private void transform(ClassNode classNode, ClassTransformer classTransformer, CodeSizes codeSizes, MethodAnalyses analyses, GrowthBudget growthBudget) {
+        classTransformer.beginClass(classNode.name, codeSizes, analyses, growthBudget);
+        try {
+            this.transformClass(classNode, classTransformer, codeSizes, analyses, growthBudget);
+        } finally {
+            classTransformer.endClass();
+        }
+    }
 
-        // **DEFINITIVE FIX**: Proactively skip heavy transformations on overly complex classes.
-        if (classTransformer instanceof ConstantTransformer ||
+    private void transformClass(ClassNode classNode, ClassTransformer classTransformer, CodeSizes codeSizes, MethodAnalyses analyses, GrowthBudget growthBudget) {
+        // Without a growth budget, heavy transformations proactively skip overly complex classes
+        if (growthBudget == null && (classTransformer instanceof ConstantTransformer ||
                 classTransformer instanceof LightControlFlowTransformer ||
-                classTransformer instanceof HeavyControlFlowTransformer) {
+                classTransformer instanceof HeavyControlFlowTransformer)) {
             if (ASMUtils.isClassTooComplex(classNode)) {
                 this.byteObf.log("Skipping transformer '%s' for overly complex class: %s", classTransformer.getName(), classNode.name);
                 return;
@@ -154,21 +338,50 @@ public class TransformManager {
 
         classTransformer.transformClass(classNode);
         classNode.fields.stream()
-                .filter(fieldNode -> !this.byteObf.isExcluded(classTransformer, ASMUtils.getName(classNode, fieldNode)))
+                .filter(fieldNode -> !this.byteObf.isExcluded(classTransformer, classNode.name, fieldNode.name, null))
                 .forEach(fieldNode -> classTransformer.transformField(classNode, fieldNode));
-        classNode.methods.stream()
-                .filter(methodNode -> !this.byteObf.isExcluded(classTransformer, ASMUtils.getName(classNode, methodNode)))
-                .forEach(methodNode -> {
-                    // Clone original instructions to allow reversion
-                    AbstractInsnNode[] insns = methodNode.instructions.toArray().clone();
-                    classTransformer.transformMethod(classNode, methodNode);
-
-                    // Revert changes if method size is invalid AFTER transformation (Reactive guard)
-                    if (!ASMUtils.isMethodSizeValid(methodNode)) {
-                        this.byteObf.err("Reverting changes from \"%s\" on \"%s\" due to excessive method size after transform.", classTransformer.getName(), classNode.name + "." + methodNode.name + methodNode.desc);
-                        methodNode.instructions = ASMUtils.arrayToList(insns);
-                    }
-                });
+
+        final List<MethodNode> methods = classNode.methods.stream()
+                .filter(methodNode -> !this.byteObf.isExcluded(classTransformer, classNode.name, methodNode.name, methodNode.desc))
+                .collect(Collectors.toList());
+        final int[] growths = methods.stream().mapToInt(methodNode -> classTransformer.getMaxCodeGrowth(classNode, methodNode)).toArray();
+        long pendingDemand = Arrays.stream(growths).filter(growth -> growth > 0).asLongStream().sum();
+        for (int i = 0; i < growths.length; i++) {
+            final MethodNode methodNode = methods.get(i);
+            final int growth = growths[i];
+            if (growthBudget != null && growth > 0) {
+                growthBudget.beginMethod(growth, pendingDemand, ASMUtils.MAX_CODE_SIZE - codeSizes.get(methodNode));
+                pendingDemand -= growth;
+            }
+            try {
+                this.transformMethod(classNode, methodNode, classTransformer, growth, codeSizes, analyses, growthBudget);
+            } finally {
+                if (growthBudget != null) growthBudget.endMethod();
+            }
+        }
+    }
+
+    private void transformMethod(ClassNode classNode, MethodNode methodNode, ClassTransformer classTransformer, int growth, CodeSizes codeSizes, MethodAnalyses analyses, GrowthBudget growthBudget) {
+        // Only methods that could outgrow the limit are kept to revert
+        final boolean mayExceed = growth != 0 && (growth < 0 || (long) codeSizes.get(methodNode) + growth > ASMUtils.MAX_CODE_SIZE);
+        final MethodSnapshot snapshot = mayExceed ? new MethodSnapshot(methodNode) : null;
+        final int size = mayExceed ? codeSizes.get(methodNode) : 0;
+        final long spent = growthBudget != null ? growthBudget.getSpent() : 0;
+        classTransformer.transformMethod(classNode, methodNode);
+        // Transformers without a bound don't have to report their changes
+        if (growth < 0) {
+            codeSizes.invalidate(methodNode);
+            analyses.invalidate(methodNode);
+        }
+
+        // Revert changes if method size is invalid AFTER transformation (Reactive guard)
+        if (snapshot != null && codeSizes.get(methodNode) > ASMUtils.MAX_CODE_SIZE) {
+            this.byteObf.err("Reverting changes from \"%s\" on \"%s\" due to excessive method size after transform.", classTransformer.getName(), classNode.name + "." + methodNode.name + methodNode.desc);
+            snapshot.restore(methodNode);
+            codeSizes.set(methodNode, size);
+            analyses.invalidate(methodNode);
+            if (growthBudget != null) growthBudget.refund(growthBudget.getSpent() - spent);
+        }
     }
 
     @SuppressWarnings("unchecked") // Checked using stream
@@ -181,6 +394,50 @@ public class TransformManager {
                 .orElseThrow(() -> new NullPointerException("Cannot find transformerClass: " + transformerClass.getName()));
     }
 
+    /**
+     * @return seed every random decision of this run is derived from
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return the visitor wrapped so that it receives the class with the names the renamers chose
+     */
+    public ClassVisitor remap(ClassVisitor classVisitor) {
+        return this.renameMap == null ? classVisitor : new ClassRemapper(classVisitor, this.renameMap);
+    }
+
+    /**
+     * Scans the constant pool of a class that isn't materialized, classes that mention nothing renamed can be copied as they are
+     *
+     * @return whether {@link #remap} changes the class
+     */
+    public boolean isRemapped(ClassWrapper classWrapper) {
+        return this.renameMap != null && classWrapper.references(this.renamedOwners);
+    }
+
+    /**
+     * @return the name the class is written with
+     */
+    public String getOutputName(String className) {
+        return this.classNameMap.getRenamed(className);
+    }
+
+    /**
+     * @return classes renamed by {@link ClassRenamerTransformer}
+     */
+    public ClassNameMap getClassNameMap() {
+        return classNameMap;
+    }
+
+    /**
+     * @return configured order of the enabled transformers, null before the transformation
+     */
+    public TransformSchedule getSchedule() {
+        return schedule;
+    }
+
     public List<ClassTransformer> getClassTransformers() {
         return classTransformers;
     }
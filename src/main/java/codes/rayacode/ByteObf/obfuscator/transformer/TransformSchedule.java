@@ -0,0 +1,87 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package codes.rayacode.ByteObf.obfuscator.transformer;
+
+import codes.rayacode.ByteObf.obfuscator.utils.model.TransformPart;
+
+import java.util.*;
+
+/**
+ * Dependencies between the transformers, built from the parts they read and write. A transformer depends on every transformer
+ * before it in the configured order that writes a part it touches or touches a part it writes, running those the other way
+ * around would change the output.
+ */
+public class TransformSchedule {
+
+    private final List<ClassTransformer> order;
+    private final Map<ClassTransformer, Set<ClassTransformer>> dependencies = new IdentityHashMap<>();
+
+    /**
+     * @param order configured order of the transformers
+     */
+    public TransformSchedule(List<? extends ClassTransformer> order) {
+        this.order = List.copyOf(order);
+        for (int i = 0; i < order.size(); i++) {
+            final ClassTransformer classTransformer = order.get(i);
+            final Set<ClassTransformer> dependencies = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (int j = 0; j < i; j++) {
+                if (conflicts(order.get(j), classTransformer)) dependencies.add(order.get(j));
+            }
+            this.dependencies.put(classTransformer, dependencies);
+        }
+    }
+
+    /**
+     * @return whether the order of the transformers changes the output
+     */
+    public static boolean conflicts(ClassTransformer a, ClassTransformer b) {
+        return intersects(a.getWrites(), b.getWrites()) || intersects(a.getWrites(), b.getReads()) || intersects(a.getReads(), b.getWrites());
+    }
+
+    private static boolean intersects(Set<TransformPart> a, Set<TransformPart> b) {
+        return a.stream().anyMatch(b::contains);
+    }
+
+    /**
+     * Checks that the transformers are run after the ones they depend on in the configured order
+     * @param runOrder order the transformers are actually run in
+     * @throws IllegalStateException if one isn't
+     */
+    public void validate(List<? extends ClassTransformer> runOrder) {
+        final Set<ClassTransformer> done = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (ClassTransformer classTransformer : runOrder) {
+            for (ClassTransformer dependency : this.getDependencies(classTransformer)) {
+                if (runOrder.contains(dependency) && !done.contains(dependency))
+                    throw new IllegalStateException(String.format("%s has to run after %s", classTransformer.getName(), dependency.getName()));
+            }
+            done.add(classTransformer);
+        }
+    }
+
+    /**
+     * @return the configured order
+     */
+    public List<ClassTransformer> getOrder() {
+        return order;
+    }
+
+    public Set<ClassTransformer> getDependencies(ClassTransformer classTransformer) {
+        return this.dependencies.getOrDefault(classTransformer, Set.of());
+    }
+}
@@ -22,12 +22,17 @@ import codes.rayacode.ByteObf.obfuscator.transformer.ClassTransformer;
 import codes.rayacode.ByteObf.obfuscator.utils.ASMUtils;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfCategory;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfConfig;
+import codes.rayacode.ByteObf.obfuscator.utils.model.MethodAnalysis;
+import codes.rayacode.ByteObf.obfuscator.utils.model.TransformPart;
 import org.objectweb.asm.tree.*;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
 import java.util.stream.IntStream;
 
 public class ConstantTransformer extends ClassTransformer {
@@ -36,16 +41,25 @@ public class ConstantTransformer extends ClassTransformer {
     // **FIX**: Prevent huge strings from being obfuscated, as they cause massive class bloat.
     private static final int MAX_STRING_LENGTH_TO_OBFUSCATE = 128;
     private static final double INJECTION_RATE = 0.30;
+    // Largest code of one obfuscated number and one stored string character, with wide locals and every jump widened
+    private static final int MAX_NUMBER_GROWTH = 100;
+    private static final int MAX_STORE_GROWTH = 11;
+    // Most stack slots the flow around one obfuscated number pushes on top of the stack it finds there
+    private static final int MAX_FLOW_STACK = 4;
 
     public ConstantTransformer(ByteObf byteObf) {
         super(byteObf, "Constant obfuscation", ByteObfCategory.ADVANCED);
     }
 
     private void obfuscateNumbers(ClassNode classNode, MethodNode methodNode) {
+        final Random random = this.random();
+        final boolean flowEnabled = this.getByteObf().getConfig().getOptions().getConstantObfuscation() == ByteObfConfig.ByteObfOptions.ConstantObfuscationOption.FLOW;
+        // The flow jumps back to the number, so it only goes where the frames allow it, like the control flow transformers
+        final MethodAnalysis analysis = flowEnabled ? this.analyze(classNode, methodNode) : null;
         Arrays.stream(methodNode.instructions.toArray())
                 .filter(insn -> ASMUtils.isPushInt(insn) || ASMUtils.isPushLong(insn))
                 .forEach(insn -> {
-                    if(random.nextDouble() > INJECTION_RATE) return;
+                    if(!this.shouldInject(MAX_NUMBER_GROWTH)) return;
 
                     final InsnList insnList = new InsnList();
                     final ValueType valueType = this.getValueType(insn);
@@ -95,7 +109,7 @@ public class ConstantTransformer extends ClassTransformer {
                         }
                     }
 
-                    if (this.getByteObf().getConfig().getOptions().getConstantObfuscation() == ByteObfConfig.ByteObfOptions.ConstantObfuscationOption.FLOW) {
+                    if (flowEnabled && isInjectable(classNode, analysis, insn, MAX_FLOW_STACK)) {
                         final InsnList flow = new InsnList(), afterFlow = new InsnList();
                         final LabelNode label0 = new LabelNode(), label1 = new LabelNode(), label2 = new LabelNode(), label3 = new LabelNode();
                         int index = methodNode.maxLocals + 2;
@@ -132,17 +146,18 @@ public class ConstantTransformer extends ClassTransformer {
                         afterFlow.add(new JumpInsnNode(GOTO, label3));
                         afterFlow.add(label2);
 
-                        methodNode.instructions.insertBefore(insn, flow);
-                        methodNode.instructions.insert(insn, afterFlow);
+                        this.insertBefore(methodNode, insn, flow);
+                        this.insert(methodNode, insn, afterFlow);
                     }
-                    methodNode.instructions.insert(insn, insnList);
-                    methodNode.instructions.remove(insn);
+                    this.insert(methodNode, insn, insnList);
+                    this.remove(methodNode, insn);
                 });
     }
 
     @Override
     public void transformMethod(ClassNode classNode, MethodNode methodNode) {
-        if (ASMUtils.getCodeSize(methodNode) > METHOD_SIZE_THRESHOLD) {
+        // Without a growth budget, large methods are left alone
+        if (!this.hasGrowthBudget() && this.getCodeSize(methodNode) > METHOD_SIZE_THRESHOLD) {
             this.getByteObf().log("Skipping constant obfuscation for already large method: %s.%s", classNode.name, methodNode.name);
             return;
         }
@@ -156,10 +171,10 @@ public class ConstantTransformer extends ClassTransformer {
                     if (s.length() > MAX_STRING_LENGTH_TO_OBFUSCATE || s.isEmpty()) {
                         return;
                     }
-                    if (random.nextDouble() > INJECTION_RATE) return;
+                    if (!this.shouldInject(getMaxStringGrowth(s))) return;
 
-                    methodNode.instructions.insertBefore(ldc, this.convertString(methodNode, s));
-                    methodNode.instructions.remove(ldc);
+                    this.insertBefore(methodNode, ldc, this.convertString(methodNode, s));
+                    this.remove(methodNode, ldc);
                 });
 
         this.obfuscateNumbers(classNode, methodNode);
@@ -179,7 +194,7 @@ public class ConstantTransformer extends ClassTransformer {
         insnList.add(new LdcInsnNode(fieldNode.value));
         int opcode = (fieldNode.access & ACC_STATIC) != 0 ? PUTSTATIC : PUTFIELD;
         insnList.add(new FieldInsnNode(opcode, classNode.name, fieldNode.name, fieldNode.desc));
-        methodNode.instructions.insert(insnList);
+        this.insert(methodNode, insnList);
         fieldNode.value = null;
     }
 
@@ -191,7 +206,8 @@ public class ConstantTransformer extends ClassTransformer {
         insnList.add(new VarInsnNode(ASTORE, varIndex));
         ArrayList<Integer> indexes = new ArrayList<>();
         for(int i = 0; i < str.length(); i++) indexes.add(i);
-        Collections.shuffle(indexes);
+        final Random random = this.random();
+        Collections.shuffle(indexes, random);
 
         for(int i = 0; i < str.length(); i++) {
             int index = indexes.remove(0);
@@ -215,6 +231,29 @@ public class ConstantTransformer extends ClassTransformer {
         return insnList;
     }
 
+    @Override
+    public int getMaxCodeGrowth(ClassNode classNode, MethodNode methodNode) {
+        long growth = 0;
+        for (AbstractInsnNode insn : methodNode.instructions) {
+            if (insn instanceof LdcInsnNode ldc && ldc.cst instanceof String s && !s.isEmpty() && s.length() <= MAX_STRING_LENGTH_TO_OBFUSCATE) {
+                // Every character is stored with two pushes, which are obfuscated as numbers afterwards
+                growth += getMaxStringGrowth(s) + (2L * s.length() + 3) * MAX_NUMBER_GROWTH;
+            } else if (ASMUtils.isPushInt(insn) || ASMUtils.isPushLong(insn)) {
+                growth += MAX_NUMBER_GROWTH;
+            }
+        }
+        return (int) Math.min(growth, Integer.MAX_VALUE);
+    }
+
+    @Override
+    protected double getInjectionRate() {
+        return INJECTION_RATE;
+    }
+
+    private static int getMaxStringGrowth(String str) {
+        return (str.length() + 1) * MAX_STORE_GROWTH + 32;
+    }
+
     private boolean canShiftLeft(byte shift, long value, final long minValue) {
         int power = (int) (Math.log(-(minValue >> 1)) / Math.log(2)) + 1;
         return IntStream.range(0, shift).allMatch(i -> (value >> power - i) == 0);
@@ -228,6 +267,11 @@ public class ConstantTransformer extends ClassTransformer {
         throw new IllegalArgumentException("Insn is not a push int/long instruction");
     }
 
+    @Override
+    public Set<TransformPart> getWrites() {
+        return EnumSet.of(TransformPart.MEMBERS, TransformPart.CODE);
+    }
+
     @Override
     public ByteObfConfig.EnableType getEnableType() {
         return new ByteObfConfig.EnableType(() -> ((List<?>)this.getEnableType().type()).contains(this.getByteObf().getConfig().getOptions().getConstantObfuscation()),
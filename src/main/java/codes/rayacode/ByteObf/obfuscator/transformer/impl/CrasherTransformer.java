@@ -19,17 +19,19 @@
 package codes.rayacode.ByteObf.obfuscator.transformer.impl;
 
 import codes.rayacode.ByteObf.obfuscator.ByteObf;
+import codes.rayacode.ByteObf.obfuscator.io.JarWriter;
 import codes.rayacode.ByteObf.obfuscator.transformer.ClassTransformer;
 import codes.rayacode.ByteObf.obfuscator.utils.ASMUtils;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfCategory;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfConfig;
+import codes.rayacode.ByteObf.obfuscator.utils.model.TransformPart;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.tree.ClassNode;
 
 import java.io.IOException;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.jar.JarEntry;
-import java.util.jar.JarOutputStream;
 
 public class CrasherTransformer extends ClassTransformer {
 
@@ -37,33 +39,33 @@ public class CrasherTransformer extends ClassTransformer {
         super(byteObf, "Decompiler crasher", ByteObfCategory.ADVANCED);
     }
 
-    public static final String PACKAGE_NAME;
+    private static final String[] PACKAGE_NAMES = { "com", "net", "io", "org" };
     public static final String REPEAT_BASE = "\u0001/";
 
-    static {
-        int caseNum;
-        PACKAGE_NAME = switch (caseNum = ThreadLocalRandom.current().nextInt(4)) {
-            case 0 -> "com";
-            case 1 -> "net";
-            case 2 -> "io";
-            case 3 -> "org";
-            default -> throw new IllegalArgumentException("Invalid PACKAGE_NAME case " + caseNum);
-        };
-    }
-
     @Override
-    public void transformOutput(JarOutputStream jarOutputStream) {
+    public void transformOutput(JarWriter jarWriter) {
+        final String packageName = PACKAGE_NAMES[this.random().nextInt(PACKAGE_NAMES.length)];
         ClassNode invalid = new ClassNode();
-        invalid.visit(Opcodes.V1_5, Opcodes.ACC_PUBLIC, PACKAGE_NAME + REPEAT_BASE.repeat((Character.MAX_VALUE / REPEAT_BASE.length()) - PACKAGE_NAME.length()), null, "java/lang/Object", null);
+        invalid.visit(Opcodes.V1_5, Opcodes.ACC_PUBLIC, packageName + REPEAT_BASE.repeat((Character.MAX_VALUE / REPEAT_BASE.length()) - packageName.length()), null, "java/lang/Object", null);
         try {
             // Using a simple but still unusual name that is valid.
-            jarOutputStream.putNextEntry(new JarEntry("_.class"));
-            jarOutputStream.write(ASMUtils.toByteArrayDefault(invalid));
+            jarWriter.putNextEntry(new JarEntry("_.class"));
+            jarWriter.write(ASMUtils.toByteArrayDefault(invalid));
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    @Override
+    public boolean isTransformingClasses() {
+        return false;
+    }
+
+    @Override
+    public Set<TransformPart> getWrites() {
+        return EnumSet.of(TransformPart.OUTPUT);
+    }
+
     @Override
     public ByteObfConfig.EnableType getEnableType() {
         return new ByteObfConfig.EnableType(() -> this.getByteObf().getConfig().getOptions().isCrasher(), boolean.class);
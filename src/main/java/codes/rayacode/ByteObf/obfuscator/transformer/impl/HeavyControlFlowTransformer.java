@@ -23,16 +23,17 @@ import codes.rayacode.ByteObf.obfuscator.utils.ASMUtils;
 import codes.rayacode.ByteObf.obfuscator.utils.InsnBuilder;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfCategory;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfConfig;
+import codes.rayacode.ByteObf.obfuscator.utils.model.MethodAnalysis;
 import org.objectweb.asm.tree.*;
 
 import java.util.Arrays;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.Random;
 
 public class HeavyControlFlowTransformer extends ControlFlowTransformer {
 
-    // If a method's initial size exceeds this, skip it to avoid performance issues and potential OOM errors.
+    // Without a growth budget, methods larger than this are skipped to avoid performance issues and potential OOM errors.
     private static final int METHOD_SIZE_THRESHOLD = 30000;
-    // To prevent methods from growing too large, only apply obfuscation to a fraction of the instructions.
+    // Without a growth budget, only a fraction of the instructions is obfuscated so methods don't grow too large.
     private static final double INJECTION_RATE = 0.20;
 
     public HeavyControlFlowTransformer(ByteObf byteObf) {
@@ -45,7 +46,7 @@ public class HeavyControlFlowTransformer extends ControlFlowTransformer {
     @Override
     public void transformClass(ClassNode classNode) {
         if(!ASMUtils.isClassEligibleToModify(classNode)) return;
-        classNode.fields.add(new FieldNode(accessArr[ThreadLocalRandom.current().nextInt(accessArr.length)] | ACC_STATIC, FLOW_FIELD_NAME, "J", null, 0L));
+        classNode.fields.add(new FieldNode(accessArr[this.random().nextInt(accessArr.length)] | ACC_STATIC, FLOW_FIELD_NAME, "J", null, 0L));
     }
 
     @Override
@@ -53,12 +54,14 @@ public class HeavyControlFlowTransformer extends ControlFlowTransformer {
         if(!ASMUtils.isMethodEligibleToModify(classNode, methodNode)) return;
 
         // **Proactive Skip**
-        if (ASMUtils.getCodeSize(methodNode) > METHOD_SIZE_THRESHOLD) {
+        if (!this.hasGrowthBudget() && this.getCodeSize(methodNode) > METHOD_SIZE_THRESHOLD) {
             this.getByteObf().log("Skipping heavy control flow for already large method: %s.%s", classNode.name, methodNode.name);
             return;
         }
 
-        if(Arrays.stream(methodNode.instructions.toArray()).noneMatch(ASMUtils::isIf)) {
+        final Random random = this.random();
+        final MethodAnalysis analysis = this.analyze(classNode, methodNode);
+        if(Arrays.stream(methodNode.instructions.toArray()).noneMatch(ASMUtils::isIf) && isInjectable(classNode, analysis, methodNode.instructions.getFirst())) {
             final InsnList il = new InsnList();
             final LabelNode label0 = new LabelNode();
             final LabelNode label1 = new LabelNode();
@@ -69,34 +72,34 @@ public class HeavyControlFlowTransformer extends ControlFlowTransformer {
             il.add(label1);
             il.add(new InsnNode(ICONST_M1));
             il.add(new JumpInsnNode(IF_ICMPLE, label0));
-            methodNode.instructions.insert(il);
+            this.insert(methodNode, il);
         }
 
         // Main obfuscation
         Arrays.stream(methodNode.instructions.toArray())
-                .filter(insn -> ASMUtils.isInvokeMethod(insn, true) || insn.getOpcode() == NEW || ASMUtils.isFieldInsn(insn))
+                .filter(ControlFlowTransformer::isTarget)
+                .filter(insn -> isInjectable(classNode, analysis, insn))
                 .forEach(insn -> {
-                    // **Adaptive Injection**
-                    if (random.nextDouble() > INJECTION_RATE) return;
+                    if (!this.shouldInject(MAX_TARGET_GROWTH)) return;
 
                     final InsnList before = new InsnList();
                     final InsnList after = new InsnList();
 
-                    switch (ThreadLocalRandom.current().nextInt(2)) {
+                    switch (random.nextInt(2)) {
                         case 0 -> {
                             final LabelNode label0 = new LabelNode();
                             final LabelNode label1 = new LabelNode();
                             final LabelNode label2 = new LabelNode();
                             final LabelNode label3 = new LabelNode();
 
-                            before.add(ASMUtils.pushInt(ThreadLocalRandom.current().nextInt()));
-                            before.add(ASMUtils.pushInt(ThreadLocalRandom.current().nextInt()));
+                            before.add(ASMUtils.pushInt(random.nextInt()));
+                            before.add(ASMUtils.pushInt(random.nextInt()));
                             before.add(label2);
                             before.add(new InsnNode(POP2));
                             before.add(new FieldInsnNode(GETSTATIC, classNode.name, FLOW_FIELD_NAME, "J"));
                             long l;
                             do {
-                                l = ThreadLocalRandom.current().nextLong();
+                                l = random.nextLong();
                             } while (l == 0);
                             before.add(ASMUtils.pushLong(l));
                             before.add(new InsnNode(LCMP));
@@ -118,7 +121,7 @@ public class HeavyControlFlowTransformer extends ControlFlowTransformer {
                         case 1 -> {
                             before.add(new FieldInsnNode(GETSTATIC, classNode.name, FLOW_FIELD_NAME, "J"));
                             before.add(new InsnNode(L2I));
-                            before.add(getRandomLookupSwitch(2 + ThreadLocalRandom.current().nextInt(3),
+                            before.add(getRandomLookupSwitch(random, 2 + random.nextInt(3),
                                     0,
                                     new SwitchBlock(InsnBuilder.createEmpty().getInsnList()),
                                     () -> new SwitchBlock(InsnBuilder.createEmpty().getInsnList()),
@@ -126,11 +129,23 @@ public class HeavyControlFlowTransformer extends ControlFlowTransformer {
                         }
                     }
 
-                    methodNode.instructions.insertBefore(insn, before);
-                    methodNode.instructions.insert(insn, after);
+                    this.insertBefore(methodNode, insn, before);
+                    this.insert(methodNode, insn, after);
                 });
     }
 
+    @Override
+    protected double getInjectionRate() {
+        return INJECTION_RATE;
+    }
+
+    @Override
+    public int getMaxCodeGrowth(ClassNode classNode, MethodNode methodNode) {
+        if (!ASMUtils.isMethodEligibleToModify(classNode, methodNode)) return 0;
+        // The opaque branch added to methods without one takes 16 bytes at most
+        return (int) Math.min(16L + getMaxTargetGrowth(classNode, this.analyze(classNode, methodNode), methodNode), Integer.MAX_VALUE);
+    }
+
     @Override
     public ByteObfConfig.EnableType getEnableType() {
         return new ByteObfConfig.EnableType(() -> this.getByteObf().getConfig().getOptions().getControlFlowObfuscation() == this.getEnableType().type(), ByteObfConfig.ByteObfOptions.ControlFlowObfuscationOption.HEAVY);
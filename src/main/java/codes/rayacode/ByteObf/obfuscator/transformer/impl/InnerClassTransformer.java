@@ -22,9 +22,14 @@ import codes.rayacode.ByteObf.obfuscator.ByteObf;
 import codes.rayacode.ByteObf.obfuscator.transformer.ClassTransformer;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfCategory;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfConfig;
+import codes.rayacode.ByteObf.obfuscator.utils.model.TransformPart;
+import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Set;
 
 public class InnerClassTransformer extends ClassTransformer {
 
@@ -36,6 +41,29 @@ public class InnerClassTransformer extends ClassTransformer {
         classNode.innerClasses = new ArrayList<>();
     }
 
+    @Override
+    public int getMaxCodeGrowth(ClassNode classNode, MethodNode methodNode) {
+        return 0;
+    }
+
+    @Override
+    public ClassVisitor createVisitor(ClassVisitor classVisitor) {
+        return new ClassVisitor(ASM9, classVisitor) {
+            @Override
+            public void visitInnerClass(String name, String outerName, String innerName, int access) { }
+        };
+    }
+
+    @Override
+    public boolean hasVisitor() {
+        return true;
+    }
+
+    @Override
+    public Set<TransformPart> getWrites() {
+        return EnumSet.of(TransformPart.ATTRIBUTES);
+    }
+
     @Override
     public ByteObfConfig.EnableType getEnableType() {
         return new ByteObfConfig.EnableType(() -> this.getByteObf().getConfig().getOptions().isRemoveInnerClasses(), boolean.class);
@@ -24,13 +24,15 @@ import codes.rayacode.ByteObf.obfuscator.utils.ASMUtils;
 import codes.rayacode.ByteObf.obfuscator.utils.InsnBuilder;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfCategory;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfConfig;
+import codes.rayacode.ByteObf.obfuscator.utils.model.MethodAnalysis;
 import org.objectweb.asm.tree.*;
 
 import java.util.Arrays;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.Random;
 
 public class LightControlFlowTransformer extends ControlFlowTransformer {
 
+    // Without a growth budget, methods larger than this are skipped
     private static final int METHOD_SIZE_THRESHOLD = 30000;
 
     public LightControlFlowTransformer(ByteObf byteObf) {
@@ -40,29 +42,48 @@ public class LightControlFlowTransformer extends ControlFlowTransformer {
     private static final String FLOW_FIELD_NAME = String.valueOf((char)5096);
     private static final int[] accessArr = new int[] { 0, ACC_PUBLIC, ACC_PRIVATE, ACC_PROTECTED };
 
-    private long flowFieldValue = 0;
     @Override
     public void transformClass(ClassNode classNode) {
         // Skip interfaces because we cannot declare mutable fields in that
         if(!ASMUtils.isClassEligibleToModify(classNode)) return;
 
-        this.flowFieldValue = ThreadLocalRandom.current().nextLong();
-        classNode.fields.add(new FieldNode(accessArr[ThreadLocalRandom.current().nextInt(accessArr.length)] | ACC_STATIC, FLOW_FIELD_NAME, "J", null, this.flowFieldValue));
+        final Random random = this.random();
+        classNode.fields.add(new FieldNode(accessArr[random.nextInt(accessArr.length)] | ACC_STATIC, FLOW_FIELD_NAME, "J", null, random.nextLong()));
+    }
+
+    /**
+     * @return value of the flow field added to the class, or null if the class didn't get one
+     */
+    private static Long getFlowFieldValue(ClassNode classNode) {
+        return classNode.fields.stream()
+                .filter(fieldNode -> FLOW_FIELD_NAME.equals(fieldNode.name) && fieldNode.value instanceof Long)
+                .map(fieldNode -> (Long) fieldNode.value)
+                .findFirst()
+                .orElse(null);
     }
 
     @Override
     public void transformMethod(ClassNode classNode, MethodNode methodNode) {
         if(!ASMUtils.isMethodEligibleToModify(classNode, methodNode)) return;
 
-        if (ASMUtils.getCodeSize(methodNode) > METHOD_SIZE_THRESHOLD) {
+        if (!this.hasGrowthBudget() && this.getCodeSize(methodNode) > METHOD_SIZE_THRESHOLD) {
             this.getByteObf().log("Skipping light control flow for already large method: %s.%s", classNode.name, methodNode.name);
             return;
         }
 
+        final Long flowField = getFlowFieldValue(classNode);
+        if (flowField == null) return;
+        final long flowFieldValue = flowField;
+        final Random random = this.random();
+        final MethodAnalysis analysis = this.analyze(classNode, methodNode);
+
         // Main obfuscation
         Arrays.stream(methodNode.instructions.toArray())
-                .filter(insn -> ASMUtils.isInvokeMethod(insn, true) || insn.getOpcode() == NEW || ASMUtils.isFieldInsn(insn))
+                .filter(ControlFlowTransformer::isTarget)
+                .filter(insn -> isInjectable(classNode, analysis, insn))
                 .forEach(insn -> {
+                    if (!this.shouldInject(MAX_TARGET_GROWTH)) return;
+
                     final LabelNode label0 = new LabelNode();
                     final LabelNode label1 = new LabelNode();
                     final LabelNode label2 = new LabelNode();
@@ -74,7 +95,7 @@ public class LightControlFlowTransformer extends ControlFlowTransformer {
                     final InsnList before = new InsnList();
                     final InsnList after = new InsnList();
 
-                    switch (ThreadLocalRandom.current().nextInt(2)) {
+                    switch (random.nextInt(2)) {
                         case 0 -> {
                             before.add(new JumpInsnNode(GOTO, label3));
                             before.add(label2);
@@ -83,19 +104,19 @@ public class LightControlFlowTransformer extends ControlFlowTransformer {
                             before.add(new FieldInsnNode(GETSTATIC, classNode.name, FLOW_FIELD_NAME, "J"));
                             long l;
                             do {
-                                l = ThreadLocalRandom.current().nextLong();
-                            } while (l == this.flowFieldValue);
+                                l = random.nextLong();
+                            } while (l == flowFieldValue);
                             before.add(ASMUtils.pushLong(l));
                             before.add(new InsnNode(LCMP));
                             before.add(new InsnNode(DUP));
                             before.add(new JumpInsnNode(IFEQ, label2));
 
-                            before.add(ASMUtils.pushInt((this.flowFieldValue > l) ? 1 : -1));
+                            before.add(ASMUtils.pushInt((flowFieldValue > l) ? 1 : -1));
                             before.add(new JumpInsnNode(IF_ICMPNE, label5));
 
                             after.add(new JumpInsnNode(GOTO, label6));
                             after.add(label5);
-                            after.add(ASMUtils.pushInt(ThreadLocalRandom.current().nextInt()));
+                            after.add(ASMUtils.pushInt(random.nextInt()));
                             after.add(new JumpInsnNode(GOTO, label2));
                             after.add(label6);
                         }
@@ -103,24 +124,30 @@ public class LightControlFlowTransformer extends ControlFlowTransformer {
                             before.add(new FieldInsnNode(GETSTATIC, classNode.name, FLOW_FIELD_NAME, "J"));
                             before.add(new JumpInsnNode(GOTO, label1));
                             before.add(label0);
-                            before.add(ASMUtils.pushLong(ThreadLocalRandom.current().nextLong()));
+                            before.add(ASMUtils.pushLong(random.nextLong()));
                             before.add(new InsnNode(LDIV));
                             before.add(label1);
                             before.add(new InsnNode(L2I));
-                            before.add(getRandomLookupSwitch(2 + ThreadLocalRandom.current().nextInt(3),
-                                    (int)this.flowFieldValue,
+                            before.add(getRandomLookupSwitch(random, 2 + random.nextInt(3),
+                                    (int)flowFieldValue,
                                     new SwitchBlock(InsnBuilder.createEmpty().insn(new JumpInsnNode(GOTO, label4)).getInsnList()),
-                                    () -> new SwitchBlock(InsnBuilder.createEmpty().insn(ASMUtils.pushLong(ThreadLocalRandom.current().nextLong()), new JumpInsnNode(GOTO, label0)).getInsnList()),
+                                    () -> new SwitchBlock(InsnBuilder.createEmpty().insn(ASMUtils.pushLong(random.nextLong()), new JumpInsnNode(GOTO, label0)).getInsnList()),
                                     InsnBuilder.createEmpty().getInsnList()));
                             before.add(label4);
                         }
                     }
 
-                    methodNode.instructions.insertBefore(insn, before);
-                    methodNode.instructions.insert(insn, after);
+                    this.insertBefore(methodNode, insn, before);
+                    this.insert(methodNode, insn, after);
                 });
     }
 
+    @Override
+    public int getMaxCodeGrowth(ClassNode classNode, MethodNode methodNode) {
+        if (!ASMUtils.isMethodEligibleToModify(classNode, methodNode)) return 0;
+        return getMaxTargetGrowth(classNode, this.analyze(classNode, methodNode), methodNode);
+    }
+
     @Override
     public ByteObfConfig.EnableType getEnableType() {
         return new ByteObfConfig.EnableType(() -> this.getByteObf().getConfig().getOptions().getControlFlowObfuscation() == this.getEnableType().type(), ByteObfConfig.ByteObfOptions.ControlFlowObfuscationOption.LIGHT);
@@ -22,12 +22,19 @@ import codes.rayacode.ByteObf.obfuscator.ByteObf;
 import codes.rayacode.ByteObf.obfuscator.transformer.ClassTransformer;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfCategory;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfConfig;
+import codes.rayacode.ByteObf.obfuscator.utils.model.TransformPart;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.LineNumberNode;
 import org.objectweb.asm.tree.MethodNode;
 
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
 
 public class LineNumberTransformer extends ClassTransformer {
 
@@ -46,10 +53,46 @@ public class LineNumberTransformer extends ClassTransformer {
                     .filter(insn -> insn instanceof LineNumberNode)
                     .map(insn -> (LineNumberNode)insn)
                     // Character.MAX_VALUE is not a special requirement
-                    .forEach(lineNumberNode -> lineNumberNode.line = this.random.nextInt(Character.MAX_VALUE));
+                    .forEach(lineNumberNode -> lineNumberNode.line = this.random().nextInt(Character.MAX_VALUE));
         }
     }
 
+    @Override
+    public int getMaxCodeGrowth(ClassNode classNode, MethodNode methodNode) {
+        return 0;
+    }
+
+    @Override
+    public ClassVisitor createVisitor(ClassVisitor classVisitor) {
+        final var lineNumbers = this.getByteObf().getConfig().getOptions().getLineNumbers();
+        final Random random = this.random();
+        return new ClassVisitor(ASM9, classVisitor) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                return new MethodVisitor(ASM9, super.visitMethod(access, name, descriptor, signature, exceptions)) {
+                    @Override
+                    public void visitLineNumber(int line, Label start) {
+                        switch (lineNumbers) {
+                            case DELETE -> { }
+                            case RANDOMIZE -> super.visitLineNumber(random.nextInt(Character.MAX_VALUE), start);
+                            default -> super.visitLineNumber(line, start);
+                        }
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public boolean hasVisitor() {
+        return true;
+    }
+
+    @Override
+    public Set<TransformPart> getWrites() {
+        return EnumSet.of(TransformPart.CODE, TransformPart.LINE_NUMBERS);
+    }
+
     @Override
     public ByteObfConfig.EnableType getEnableType() {
         return new ByteObfConfig.EnableType(() -> ((List<?>)this.getEnableType().type()).contains(this.getByteObf().getConfig().getOptions().getLineNumbers()),
@@ -22,10 +22,16 @@ import codes.rayacode.ByteObf.obfuscator.ByteObf;
 import codes.rayacode.ByteObf.obfuscator.transformer.ClassTransformer;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfCategory;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfConfig;
+import codes.rayacode.ByteObf.obfuscator.utils.model.TransformPart;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.MethodNode;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 public class LocalVariableTransformer extends ClassTransformer {
 
@@ -52,6 +58,51 @@ public class LocalVariableTransformer extends ClassTransformer {
         }
     }
 
+    @Override
+    public int getMaxCodeGrowth(ClassNode classNode, MethodNode methodNode) {
+        return 0;
+    }
+
+    @Override
+    public ClassVisitor createVisitor(ClassVisitor classVisitor) {
+        final var localVariables = this.getByteObf().getConfig().getOptions().getLocalVariables();
+        final String s = "\u6000";
+        return new ClassVisitor(ASM9, classVisitor) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                return new MethodVisitor(ASM9, super.visitMethod(access, name, descriptor, signature, exceptions)) {
+                    @Override
+                    public void visitParameter(String name, int access) {
+                        switch (localVariables) {
+                            case DELETE -> { }
+                            case OBFUSCATE -> super.visitParameter(s, access);
+                            default -> super.visitParameter(name, access);
+                        }
+                    }
+
+                    @Override
+                    public void visitLocalVariable(String name, String descriptor, String signature, Label start, Label end, int index) {
+                        switch (localVariables) {
+                            case DELETE -> { }
+                            case OBFUSCATE -> super.visitLocalVariable(s, String.format("L%s;", s), null, start, end, index);
+                            default -> super.visitLocalVariable(name, descriptor, signature, start, end, index);
+                        }
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public boolean hasVisitor() {
+        return true;
+    }
+
+    @Override
+    public Set<TransformPart> getWrites() {
+        return EnumSet.of(TransformPart.LOCAL_VARIABLES);
+    }
+
     @Override
     public ByteObfConfig.EnableType getEnableType() {
         return new ByteObfConfig.EnableType(() -> ((List<?>)this.getEnableType().type()).contains(this.getByteObf().getConfig().getOptions().getLocalVariables()),
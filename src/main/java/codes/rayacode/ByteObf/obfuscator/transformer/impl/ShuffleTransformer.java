@@ -22,10 +22,15 @@ import codes.rayacode.ByteObf.obfuscator.ByteObf;
 import codes.rayacode.ByteObf.obfuscator.transformer.ClassTransformer;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfCategory;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfConfig;
+import codes.rayacode.ByteObf.obfuscator.utils.model.TransformPart;
 import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
 
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
 
 public class ShuffleTransformer extends ClassTransformer {
 
@@ -43,45 +48,55 @@ public class ShuffleTransformer extends ClassTransformer {
         this.shuffle();
     }
 
+    @Override
+    public int getMaxCodeGrowth(ClassNode classNode, MethodNode methodNode) {
+        return 0;
+    }
+
     private void shuffle() {
-        var classes = this.getByteObf().getClasses();
-        Collections.shuffle(classes);
-        classes.forEach(ShuffleTransformer::shuffle);
+        var classes = this.getByteObf().getClassWrappers();
+        Collections.shuffle(classes, this.random());
+        classes.forEach(classWrapper -> shuffle(classWrapper.getClassNode(), this.random()));
     }
 
-    private static void shuffle(ClassNode classNode) {
-        shuffleIfNonnull(classNode.fields);
-        shuffleIfNonnull(classNode.methods);
-        shuffleIfNonnull(classNode.innerClasses);
-        shuffleIfNonnull(classNode.interfaces);
-        shuffleIfNonnull(classNode.attrs);
-        shuffleIfNonnull(classNode.invisibleAnnotations);
-        shuffleIfNonnull(classNode.visibleAnnotations);
-        shuffleIfNonnull(classNode.invisibleTypeAnnotations);
-        shuffleIfNonnull(classNode.visibleTypeAnnotations);
+    private static void shuffle(ClassNode classNode, Random random) {
+        shuffleIfNonnull(random, classNode.fields);
+        shuffleIfNonnull(random, classNode.methods);
+        shuffleIfNonnull(random, classNode.innerClasses);
+        shuffleIfNonnull(random, classNode.interfaces);
+        shuffleIfNonnull(random, classNode.attrs);
+        shuffleIfNonnull(random, classNode.invisibleAnnotations);
+        shuffleIfNonnull(random, classNode.visibleAnnotations);
+        shuffleIfNonnull(random, classNode.invisibleTypeAnnotations);
+        shuffleIfNonnull(random, classNode.visibleTypeAnnotations);
         classNode.fields.forEach(f -> {
-            shuffleIfNonnull(f.attrs);
-            shuffleIfNonnull(f.invisibleAnnotations);
-            shuffleIfNonnull(f.visibleAnnotations);
-            shuffleIfNonnull(f.invisibleTypeAnnotations);
-            shuffleIfNonnull(f.visibleTypeAnnotations);
+            shuffleIfNonnull(random, f.attrs);
+            shuffleIfNonnull(random, f.invisibleAnnotations);
+            shuffleIfNonnull(random, f.visibleAnnotations);
+            shuffleIfNonnull(random, f.invisibleTypeAnnotations);
+            shuffleIfNonnull(random, f.visibleTypeAnnotations);
         });
         classNode.methods.forEach(m -> {
-            shuffleIfNonnull(m.attrs);
-            shuffleIfNonnull(m.invisibleAnnotations);
-            shuffleIfNonnull(m.visibleAnnotations);
-            shuffleIfNonnull(m.invisibleTypeAnnotations);
-            shuffleIfNonnull(m.visibleTypeAnnotations);
-            shuffleIfNonnull(m.exceptions);
-            shuffleIfNonnull(m.invisibleLocalVariableAnnotations);
-            shuffleIfNonnull(m.visibleLocalVariableAnnotations);
-            shuffleIfNonnull(m.localVariables);
-            shuffleIfNonnull(m.parameters);
+            shuffleIfNonnull(random, m.attrs);
+            shuffleIfNonnull(random, m.invisibleAnnotations);
+            shuffleIfNonnull(random, m.visibleAnnotations);
+            shuffleIfNonnull(random, m.invisibleTypeAnnotations);
+            shuffleIfNonnull(random, m.visibleTypeAnnotations);
+            shuffleIfNonnull(random, m.exceptions);
+            shuffleIfNonnull(random, m.invisibleLocalVariableAnnotations);
+            shuffleIfNonnull(random, m.visibleLocalVariableAnnotations);
+            shuffleIfNonnull(random, m.localVariables);
+            shuffleIfNonnull(random, m.parameters);
         });
     }
 
-    private static void shuffleIfNonnull(List<?> list) {
-        if(list != null) Collections.shuffle(list);
+    private static void shuffleIfNonnull(Random random, List<?> list) {
+        if(list != null) Collections.shuffle(list, random);
+    }
+
+    @Override
+    public Set<TransformPart> getWrites() {
+        return EnumSet.of(TransformPart.CLASSES, TransformPart.MEMBERS, TransformPart.LOCAL_VARIABLES, TransformPart.ATTRIBUTES);
     }
 
     @Override
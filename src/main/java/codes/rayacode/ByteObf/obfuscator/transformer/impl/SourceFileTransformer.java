@@ -22,7 +22,13 @@ import codes.rayacode.ByteObf.obfuscator.ByteObf;
 import codes.rayacode.ByteObf.obfuscator.transformer.ClassTransformer;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfCategory;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfConfig;
+import codes.rayacode.ByteObf.obfuscator.utils.model.TransformPart;
+import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import java.util.EnumSet;
+import java.util.Set;
 
 public class SourceFileTransformer extends ClassTransformer {
 
@@ -36,6 +42,36 @@ public class SourceFileTransformer extends ClassTransformer {
         classNode.sourceDebug = "";
     }
 
+    @Override
+    public int getMaxCodeGrowth(ClassNode classNode, MethodNode methodNode) {
+        return 0;
+    }
+
+    @Override
+    public ClassVisitor createVisitor(ClassVisitor classVisitor) {
+        return new ClassVisitor(ASM9, classVisitor) {
+            @Override
+            public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+                super.visit(version, access, name, signature, superName, interfaces);
+                // Classes without a SourceFile get an empty one too, like from the tree
+                super.visitSource("", "");
+            }
+
+            @Override
+            public void visitSource(String source, String debug) { }
+        };
+    }
+
+    @Override
+    public boolean hasVisitor() {
+        return true;
+    }
+
+    @Override
+    public Set<TransformPart> getWrites() {
+        return EnumSet.of(TransformPart.ATTRIBUTES);
+    }
+
     @Override
     public ByteObfConfig.EnableType getEnableType() {
         return new ByteObfConfig.EnableType(() -> this.getByteObf().getConfig().getOptions().isRemoveSourceFile(), boolean.class);
@@ -22,30 +22,32 @@ import codes.rayacode.ByteObf.obfuscator.ByteObf;
 import codes.rayacode.ByteObf.obfuscator.transformer.RenamerTransformer;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfCategory;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfConfig;
+import codes.rayacode.ByteObf.obfuscator.utils.model.ClassWrapper;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ResourceWrapper;
-import org.objectweb.asm.tree.ClassNode;
 
 public class ClassRenamerTransformer extends RenamerTransformer {
 
+    private ResourceRemapper resourceRemapper;
+
     public ClassRenamerTransformer(ByteObf byteObf) {
         super(byteObf, "Rename", ByteObfCategory.STABLE);
     }
 
     @Override
-    public void transformClass(ClassNode classNode) {
-        this.registerMap(classNode.name);
+    public void prepare() {
+        // Input order, so the names only depend on the input
+        for (ClassWrapper classWrapper : this.getByteObf().getClassWrappers()) {
+            final String name = classWrapper.getName();
+            if (!this.getMap().hasClass(name) && !this.getByteObf().isExcluded(this, name)) this.registerClass(name);
+        }
     }
 
     @Override
     public void transformResource(ResourceWrapper resource) {
         if(resource.getZipEntry().isDirectory()) return;
-
-        String str = new String(resource.getBytes());
-        for (var set : map.entrySet()) {
-            String s1 = set.getKey().replace("/", ".");
-            String s2 = set.getValue().replace("/", ".");
-            str = str.replace(s1, s2);
-        } resource.setBytes(str.getBytes());
+        // Every class is renamed before the first resource
+        if (this.resourceRemapper == null) this.resourceRemapper = new ResourceRemapper(this.getMap().getClasses());
+        this.resourceRemapper.remap(resource);
     }
 
     @Override
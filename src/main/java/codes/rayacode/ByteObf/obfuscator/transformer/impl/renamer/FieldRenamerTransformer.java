@@ -20,11 +20,8 @@ package codes.rayacode.ByteObf.obfuscator.transformer.impl.renamer;
 
 import codes.rayacode.ByteObf.obfuscator.ByteObf;
 import codes.rayacode.ByteObf.obfuscator.transformer.RenamerTransformer;
-import codes.rayacode.ByteObf.obfuscator.utils.ASMUtils;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfCategory;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfConfig;
-import org.objectweb.asm.tree.ClassNode;
-import org.objectweb.asm.tree.FieldNode;
 
 public class FieldRenamerTransformer extends RenamerTransformer {
 
@@ -32,28 +29,17 @@ public class FieldRenamerTransformer extends RenamerTransformer {
         super(byteObf, "Rename", ByteObfCategory.STABLE);
     }
 
-    @Override
-    public void transformClass(ClassNode classNode) {
-        // Map all fields in this class node and its super classes (if not mapped)
-        getSuperHierarchy(classNode)
-                .forEach(cn -> cn.fields.stream()
-                        .filter(fieldNode -> !this.getByteObf().isExcluded(this, ASMUtils.getName(cn, fieldNode)))
-                        .filter(fieldNode -> !this.isMapRegistered(getFieldMapFormat(cn, fieldNode)))
-                        .forEach(fieldNode -> this.registerMap(getFieldMapFormat(cn, fieldNode)))
-                );
-
-        // Apply map to upper classes if a mapping is applied to a subclass
-        // So our mapper can rename references that access subfields from upper classes
-        getSuperHierarchy(classNode)
-                .forEach(cn -> cn.fields.stream()
-                        .filter(fieldNode -> this.isMapRegistered(getFieldMapFormat(cn, fieldNode)))
-                        .filter(fieldNode -> !this.isMapRegistered(getFieldMapFormat(classNode, fieldNode)))
-                        .forEach(fieldNode -> this.registerMap(getFieldMapFormat(classNode, fieldNode), this.map.get(getFieldMapFormat(cn, fieldNode))))
-                );
-    }
+    private RenamePlanner planner;
 
-    private static String getFieldMapFormat(ClassNode classNode, FieldNode fieldNode) {
-        return classNode.name + "." + fieldNode.name;
+    @Override
+    public void prepare() {
+        this.planner = RenamePlanner.planFields(this.getByteObf().getClassIndex(), this.getByteObf().getLibraryIndex(),
+                this.getByteObf().getClassWrappers(),
+                classWrapper -> this.getByteObf().isExcluded(this, classWrapper.getName()),
+                (owner, name, descriptor) -> this.getByteObf().isExcluded(this, owner, name, null),
+                this.getThreadCount());
+        // Each field is mapped together with every class it can be accessed through
+        this.registerGroups(this.planner);
     }
 
     @Override
@@ -0,0 +1,74 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package codes.rayacode.ByteObf.obfuscator.transformer.impl.renamer;
+
+import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfConfig.ByteObfOptions.RenameOption;
+
+/**
+ * Bijective encoding of indexes as names over the characters of a rename option. Every index gets the shortest name
+ * that no smaller index has, so there is no limit and nothing has to be remembered to keep names unique.
+ */
+public final class NameGenerator {
+
+    private NameGenerator() { }
+
+    private static final char INVISIBLE_FIRST = '\u3050';
+    // Up to the last hiragana letter, the combining marks after it aren't valid on their own
+    private static final char INVISIBLE_LAST = '\u3096';
+
+    public static String getName(RenameOption option, long index) {
+        if (index < 0) throw new IllegalArgumentException("Negative name index: " + index);
+        final int radix = getRadix(option);
+
+        // Names of one length come after all shorter names
+        int length = 1;
+        long first = 0, count = radix;
+        while (index - first >= count) {
+            first += count;
+            count = count > Long.MAX_VALUE / radix ? Long.MAX_VALUE : count * radix;
+            length++;
+        }
+
+        long offset = index - first;
+        final char[] chars = new char[length];
+        for (int i = length - 1; i >= 0; i--) {
+            chars[i] = getChar(option, (int) (offset % radix));
+            offset /= radix;
+        }
+        return new String(chars);
+    }
+
+    private static int getRadix(RenameOption option) {
+        return switch (option) {
+            case ALPHABET -> 52;
+            case INVISIBLE -> INVISIBLE_LAST - INVISIBLE_FIRST + 1;
+            case IlIlIlIlIl -> 2;
+            default -> throw new IllegalArgumentException("No names for rename option " + option);
+        };
+    }
+
+    private static char getChar(RenameOption option, int digit) {
+        return switch (option) {
+            case ALPHABET -> (char) (digit < 26 ? 'A' + digit : 'a' + digit - 26);
+            case INVISIBLE -> (char) (INVISIBLE_FIRST + digit);
+            case IlIlIlIlIl -> digit == 0 ? 'I' : 'l';
+            default -> throw new IllegalArgumentException("No names for rename option " + option);
+        };
+    }
+}
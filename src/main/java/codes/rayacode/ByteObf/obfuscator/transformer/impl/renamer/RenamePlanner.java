@@ -0,0 +1,423 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package codes.rayacode.ByteObf.obfuscator.transformer.impl.renamer;
+
+import codes.rayacode.ByteObf.obfuscator.hierarchy.ClassIndex;
+import codes.rayacode.ByteObf.obfuscator.hierarchy.LibraryIndex;
+import codes.rayacode.ByteObf.obfuscator.transformer.RenameMap;
+import codes.rayacode.ByteObf.obfuscator.utils.ThreadUtils;
+import codes.rayacode.ByteObf.obfuscator.utils.model.ClassWrapper;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
+
+/**
+ * Computes once which members have to share a name, instead of walking the hierarchy for every member.
+ * <p>
+ * Methods: every class gets the set of methods visible in it (declared and inherited from the super class and interfaces).
+ * Two methods with the same name and descriptor that meet in a class are merged into one override family with union-find.
+ * Fields: every class resolves each field name to the field it refers to, like the JVM does.
+ * <p>
+ * Each {@link Group} lists every class its members can be referenced through, all of them must get the same new name.
+ * <p>
+ * Groups never reach across classes that don't share a supertype, so every connected part of the hierarchy is planned
+ * on its own thread. Names are assigned afterwards in input order, they don't depend on how the work was split.
+ */
+public class RenamePlanner implements Opcodes {
+
+    public static final class Group {
+        private Group parent = this;
+        private int size = 1;
+        private boolean locked;
+        // Static methods are inherited but never override anything
+        private boolean isStatic;
+        private Signature signature;
+        // Classes the members can be referenced through, and classes the members are visible from
+        private List<String> keyOwners;
+        private List<String> owners;
+        private String name;
+
+        private Group find() {
+            Group group = this;
+            while (group.parent != group) {
+                group.parent = group.parent.parent;
+                group = group.parent;
+            }
+            return group;
+        }
+
+        /**
+         * @return whether a member of the group must keep its name
+         */
+        public boolean isLocked() {
+            return this.find().locked;
+        }
+    }
+
+    /**
+     * Owner and name of a field or owner, name and descriptor of a method
+     */
+    @FunctionalInterface
+    public interface MemberPredicate {
+        boolean test(String owner, String name, String descriptor);
+    }
+
+    /**
+     * What a member is looked up by, the name for fields and name and descriptor for methods
+     */
+    private record Signature(String name, String descriptor) { }
+
+    private record Member(int access, Signature signature) {
+        boolean isStatic() {
+            return (this.access & ACC_STATIC) != 0;
+        }
+
+        boolean isPrivate() {
+            return (this.access & ACC_PRIVATE) != 0;
+        }
+    }
+
+    private final boolean fields;
+    // Class -> group of each member it declares, in declaration order
+    private final Map<ClassWrapper, Group[]> declarations = new ConcurrentHashMap<>();
+    // Class -> signatures taken by locked or already named members visible from it
+    private final Map<String, Set<Signature>> occupied = new ConcurrentHashMap<>();
+    // Indexed classes in input order and their declarations, until the names are assigned
+    private List<ClassWrapper> classes;
+    private Map<ClassWrapper, List<Member>> members;
+
+    private RenamePlanner(boolean fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * @param lockedClass classes whose declarations must keep their names
+     * @param lockedMember methods that must keep their names
+     */
+    public static RenamePlanner planMethods(ClassIndex classIndex, LibraryIndex libraryIndex, Collection<ClassWrapper> classWrappers,
+                                            Predicate<ClassWrapper> lockedClass, MemberPredicate lockedMember, int threads) {
+        final RenamePlanner planner = new RenamePlanner(false);
+        planner.plan(classIndex, libraryIndex, classWrappers, lockedClass, lockedMember, threads);
+        return planner;
+    }
+
+    /**
+     * @param lockedClass classes whose declarations must keep their names
+     * @param lockedMember fields that must keep their names, the descriptor is null
+     */
+    public static RenamePlanner planFields(ClassIndex classIndex, LibraryIndex libraryIndex, Collection<ClassWrapper> classWrappers,
+                                           Predicate<ClassWrapper> lockedClass, MemberPredicate lockedMember, int threads) {
+        final RenamePlanner planner = new RenamePlanner(true);
+        planner.plan(classIndex, libraryIndex, classWrappers, lockedClass, lockedMember, threads);
+        return planner;
+    }
+
+    /**
+     * Names every group that can be renamed, in the order the members are declared in the input,
+     * and maps the group in every class its members can be referenced through
+     *
+     * @param names name generator by index
+     * @param reuse whether a name only has to be free where the group is visible, instead of in the whole jar
+     */
+    public void assignNames(LongFunction<String> names, boolean reuse, RenameMap renameMap) {
+        long index = 0;
+        for (ClassWrapper classWrapper : this.classes) {
+            for (Group declaration : this.declarations.get(classWrapper)) {
+                final Group group = declaration.find();
+                if (group.locked || group.name != null) continue;
+                if (reuse) this.assignName(group, names);
+                else group.name = names.apply(index++);
+                final Signature signature = group.signature;
+                for (String owner : group.keyOwners) {
+                    if (this.fields) renameMap.putField(owner, signature.name(), group.name);
+                    else renameMap.putMethod(owner, signature.name(), signature.descriptor(), group.name);
+                }
+            }
+        }
+        this.classes = null;
+        this.members = null;
+    }
+
+    /**
+     * Picks the first generated name that no member visible from any class of the group already uses,
+     * so names are reused across unrelated classes and, for methods, across descriptors
+     */
+    private void assignName(Group group, LongFunction<String> names) {
+        final List<Set<Signature>> scopes = new ArrayList<>(group.owners.size());
+        group.owners.forEach(owner -> scopes.add(this.occupied.computeIfAbsent(owner, k -> new HashSet<>())));
+        for (long index = 0; ; index++) {
+            final Signature signature = new Signature(names.apply(index), group.signature.descriptor());
+            if (scopes.stream().anyMatch(scope -> scope.contains(signature))) continue;
+            scopes.forEach(scope -> scope.add(signature));
+            group.name = signature.name();
+            return;
+        }
+    }
+
+    private void plan(ClassIndex classIndex, LibraryIndex libraryIndex, Collection<ClassWrapper> classWrappers,
+                      Predicate<ClassWrapper> lockedClass, MemberPredicate lockedMember, int threads) {
+        this.classes = classWrappers.stream()
+                .filter(classWrapper -> classIndex.get(classWrapper.getName()) == classWrapper)
+                .toList();
+        // Reading the declarations is the expensive part, and every class is read on its own
+        this.members = new ConcurrentHashMap<>();
+        ThreadUtils.forEach("rename-planner", threads, this.classes, classWrapper -> this.members.put(classWrapper, readMembers(classWrapper, this.fields)));
+
+        ThreadUtils.forEach("rename-planner", threads, getComponents(classIndex, this.classes),
+                component -> this.plan(component, classIndex, libraryIndex, lockedClass, lockedMember));
+    }
+
+    /**
+     * Plans one connected part of the hierarchy, ordered supertypes first
+     */
+    private void plan(List<ClassWrapper> component, ClassIndex classIndex, LibraryIndex libraryIndex,
+                      Predicate<ClassWrapper> lockedClass, MemberPredicate lockedMember) {
+        // Visible members of each class, by name for fields and by name + descriptor for methods
+        final Map<String, Map<Signature, Group>> visible = new HashMap<>();
+        // Private methods resolve before inherited ones but aren't inherited themselves
+        final Map<String, Map<Signature, Group>> privateMethods = new HashMap<>();
+        // Private methods of the supertypes still get in the way of method selection, so their names aren't free in subclasses
+        final Map<String, Set<Group>> superPrivateMethods = new HashMap<>();
+        // Classes whose whole ancestry is either part of the input or found in the libraries
+        final Set<String> resolved = new HashSet<>();
+        // Library methods can't be renamed, so one locked group per signature stands for all of them
+        final Map<String, Group> libraryMethods = new HashMap<>();
+        final Map<String, Signature> librarySignatures = new HashMap<>();
+
+        for (ClassWrapper classWrapper : component) {
+            final String owner = classWrapper.getName();
+            final String superName = classWrapper.getSuperName();
+
+            final Map<Signature, Group> members = new HashMap<>();
+            if (this.fields) {
+                // Fields resolve to the class itself, then its interfaces, then the super class
+                if (superName != null) members.putAll(visible.getOrDefault(superName, Map.of()));
+                for (String itf : classWrapper.getInterfaces()) members.putAll(visible.getOrDefault(itf, Map.of()));
+            } else {
+                if (superName != null) merge(members, visible.getOrDefault(superName, Map.of()), true);
+                for (String itf : classWrapper.getInterfaces()) merge(members, visible.getOrDefault(itf, Map.of()), false);
+            }
+
+            boolean isResolved = true;
+            final List<String> supertypes = new ArrayList<>(classWrapper.getInterfaces());
+            if (superName != null) supertypes.add(superName);
+            for (String supertype : supertypes) {
+                if (classIndex.contains(supertype)) {
+                    isResolved &= resolved.contains(supertype);
+                    continue;
+                }
+                final Set<String> overridable = libraryIndex == null ? null : libraryIndex.getOverridableMethods(supertype);
+                if (overridable == null) {
+                    // Without the runtime classes, java/lang/Object is still known not to get in the way
+                    if (!supertype.equals("java/lang/Object")) isResolved = false;
+                    continue;
+                }
+                if (!this.fields) overridable.forEach(signature -> {
+                    final Group libraryGroup = libraryMethods.computeIfAbsent(signature, k -> {
+                        final Group group = new Group();
+                        group.locked = true;
+                        return group;
+                    });
+                    final Signature librarySignature = librarySignatures.computeIfAbsent(signature, k -> {
+                        final int descriptor = k.indexOf('(');
+                        return new Signature(k.substring(0, descriptor), k.substring(descriptor));
+                    });
+                    final Group existing = members.putIfAbsent(librarySignature, libraryGroup);
+                    if (existing != null && !existing.isStatic) union(existing, libraryGroup);
+                });
+            }
+            if (isResolved) resolved.add(owner);
+            if (!this.fields) {
+                final Set<Group> superPrivates = new LinkedHashSet<>();
+                for (String supertype : supertypes) {
+                    superPrivates.addAll(superPrivateMethods.getOrDefault(supertype, Set.of()));
+                    superPrivates.addAll(privateMethods.getOrDefault(supertype, Map.of()).values());
+                }
+                if (!superPrivates.isEmpty()) superPrivateMethods.put(owner, superPrivates);
+            }
+
+            final boolean classLocked = lockedClass.test(classWrapper);
+            final List<Member> declared = this.members.get(classWrapper);
+            final Group[] groups = new Group[declared.size()];
+            for (int i = 0; i < groups.length; i++) {
+                final Member member = declared.get(i);
+                final Signature signature = member.signature();
+                final Group group = groups[i] = new Group();
+                group.isStatic = !this.fields && member.isStatic();
+                group.locked = classLocked || signature.name().startsWith("<") || lockedMember.test(owner, signature.name(), signature.descriptor())
+                        // Methods that may override a library method we can't see keep their names
+                        || (!this.fields && !isResolved && !member.isStatic() && !member.isPrivate());
+
+                if (!this.fields && member.isPrivate()) {
+                    privateMethods.computeIfAbsent(owner, k -> new HashMap<>()).put(signature, group);
+                    continue;
+                }
+                final Group inherited = members.put(signature, group);
+                if (!this.fields && inherited != null && !group.isStatic && !inherited.isStatic) union(inherited, group);
+            }
+            visible.put(owner, members);
+            this.declarations.put(classWrapper, groups);
+        }
+
+        // Every class a member is visible from needs its own key, so references through subclasses are renamed too
+        visible.forEach((owner, members) -> {
+            final Map<Signature, Group> privates = privateMethods.getOrDefault(owner, Map.of());
+            members.forEach((signature, group) -> {
+                if (group.isLocked()) this.occupy(owner, signature);
+                else if (!privates.containsKey(signature)) addKey(group, owner, signature);
+            });
+            privates.forEach((signature, group) -> {
+                if (group.isLocked()) this.occupy(owner, signature);
+                addKey(group, owner, signature);
+            });
+        });
+        superPrivateMethods.forEach((owner, groups) -> groups.forEach(group -> {
+            final Group root = group.find();
+            if (root.locked) this.occupy(owner, root.signature);
+            else root.owners.add(owner);
+        }));
+    }
+
+    private void occupy(String owner, Signature signature) {
+        // Every class belongs to a single component, so only one thread ever writes the set of a class
+        this.occupied.computeIfAbsent(owner, k -> new HashSet<>()).add(signature);
+    }
+
+    /**
+     * Adds inherited methods, merging the families of methods that meet in the class
+     */
+    private static void merge(Map<Signature, Group> members, Map<Signature, Group> inherited, boolean fromSuperClass) {
+        inherited.forEach((signature, group) -> {
+            // Static interface methods aren't inherited
+            if (!fromSuperClass && group.isStatic) return;
+            final Group existing = members.putIfAbsent(signature, group);
+            if (existing != null && !existing.isStatic && !group.isStatic) union(existing, group);
+        });
+    }
+
+    private static void union(Group a, Group b) {
+        Group rootA = a.find(), rootB = b.find();
+        if (rootA == rootB) return;
+        if (rootA.size < rootB.size) {
+            Group tmp = rootA;
+            rootA = rootB;
+            rootB = tmp;
+        }
+        rootB.parent = rootA;
+        rootA.size += rootB.size;
+        rootA.locked |= rootB.locked;
+    }
+
+    private static void addKey(Group group, String owner, Signature signature) {
+        final Group root = group.find();
+        if (root.keyOwners == null) {
+            root.keyOwners = new ArrayList<>();
+            root.owners = new ArrayList<>();
+            root.signature = signature;
+        }
+        root.keyOwners.add(owner);
+        root.owners.add(owner);
+    }
+
+    private static List<Member> readMembers(ClassWrapper classWrapper, boolean fields) {
+        final List<Member> members = new ArrayList<>();
+        if (classWrapper.isMaterialized()) {
+            final ClassNode classNode = classWrapper.getClassNode();
+            if (fields) classNode.fields.forEach(f -> members.add(new Member(f.access, new Signature(f.name, null))));
+            else classNode.methods.forEach(m -> members.add(new Member(m.access, new Signature(m.name, m.desc))));
+        } else {
+            // Only the member declarations are needed, don't parse the whole class
+            new ClassReader(classWrapper.getBytes()).accept(new ClassVisitor(ASM9) {
+                @Override
+                public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+                    if (fields) members.add(new Member(access, new Signature(name, null)));
+                    return null;
+                }
+
+                @Override
+                public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                    if (!fields) members.add(new Member(access, new Signature(name, descriptor)));
+                    return null;
+                }
+            }, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        }
+        return members;
+    }
+
+    /**
+     * @return classes split into parts of the hierarchy that share no class, each ordered so that every class comes after
+     * its super class and interfaces. Largest first, so the big parts don't end up last on the workers.
+     */
+    private static List<List<ClassWrapper>> getComponents(ClassIndex classIndex, List<ClassWrapper> classes) {
+        final Map<String, String> parents = new HashMap<>();
+        for (ClassWrapper classWrapper : classes) {
+            final List<String> supertypes = new ArrayList<>(classWrapper.getInterfaces());
+            if (classWrapper.getSuperName() != null) supertypes.add(classWrapper.getSuperName());
+            for (String supertype : supertypes) {
+                if (classIndex.get(supertype) != null) link(parents, classWrapper.getName(), supertype);
+            }
+        }
+
+        final List<ClassWrapper> sorted = new ArrayList<>(classes.size());
+        final Set<String> visited = new HashSet<>();
+        for (ClassWrapper classWrapper : classes) visit(classIndex, classWrapper, visited, sorted);
+        final Map<String, List<ClassWrapper>> components = new LinkedHashMap<>();
+        for (ClassWrapper classWrapper : sorted) {
+            components.computeIfAbsent(root(parents, classWrapper.getName()), k -> new ArrayList<>()).add(classWrapper);
+        }
+        final List<List<ClassWrapper>> result = new ArrayList<>(components.values());
+        result.sort(Comparator.comparingInt(component -> -component.size()));
+        return result;
+    }
+
+    private static void link(Map<String, String> parents, String a, String b) {
+        final String rootA = root(parents, a), rootB = root(parents, b);
+        if (!rootA.equals(rootB)) parents.put(rootA, rootB);
+    }
+
+    private static String root(Map<String, String> parents, String name) {
+        String root = name;
+        for (String parent = parents.get(root); parent != null; parent = parents.get(root)) root = parent;
+        // Point the whole path at the root, so later lookups are short
+        for (String next = parents.get(name); next != null && !next.equals(root); next = parents.get(name)) {
+            parents.put(name, root);
+            name = next;
+        }
+        return root;
+    }
+
+    private static void visit(ClassIndex classIndex, ClassWrapper classWrapper, Set<String> visited, List<ClassWrapper> sorted) {
+        // Marked before the supertypes are visited, so cyclic hierarchies of broken inputs terminate
+        if (!visited.add(classWrapper.getName())) return;
+        final ClassWrapper superClass = classIndex.get(classWrapper.getSuperName());
+        if (superClass != null) visit(classIndex, superClass, visited, sorted);
+        for (String itf : classWrapper.getInterfaces()) {
+            final ClassWrapper itfWrapper = classIndex.get(itf);
+            if (itfWrapper != null) visit(classIndex, itfWrapper, visited, sorted);
+        }
+        sorted.add(classWrapper);
+    }
+}
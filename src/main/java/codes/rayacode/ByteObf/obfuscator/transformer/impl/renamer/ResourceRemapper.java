@@ -0,0 +1,289 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package codes.rayacode.ByteObf.obfuscator.transformer.impl.renamer;
+
+import codes.rayacode.ByteObf.obfuscator.utils.model.ResourceWrapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+/**
+ * Rewrites renamed class names in resources.
+ * <p>
+ * Text is rewritten in a single pass over its bytes with an Aho-Corasick automaton of all dotted class names, built once
+ * from the rename map. Only whole names match, a match can't be preceded or followed by another name character.
+ * Working on the bytes keeps the encoding of the resource untouched as long as it is ASCII compatible.
+ */
+public class ResourceRemapper {
+
+    public enum ResourceType {
+        TEXT, SERVICE, MANIFEST, BINARY
+    }
+
+    private static final String SERVICES = "META-INF/services/";
+    private static final Set<String> BINARY_EXTENSIONS = Set.of(
+            "class", "jar", "zip", "gz", "png", "jpg", "jpeg", "gif", "bmp", "ico", "webp",
+            "so", "dll", "dylib", "jnilib", "ttf", "otf", "woff", "woff2", "wav", "mp3", "ogg", "bin", "dat"
+    );
+    // Text doesn't contain NUL, look this far for one
+    private static final int SNIFF_LENGTH = 8000;
+
+    private final Map<String, String> classNames = new HashMap<>();
+    private final byte[][] replacements;
+    private final int[] patternLengths;
+
+    // Trie nodes, 0 is the root
+    private final int[] depth;
+    private final int[] fail;
+    // Pattern ending at the node, or -1
+    private final int[] output;
+    // Closest node on the fail chain that ends a pattern, or -1
+    private final int[] dictionary;
+    private final Transitions transitions;
+
+    /**
+     * @param classMap old internal name -> new internal name
+     */
+    public ResourceRemapper(Map<String, String> classMap) {
+        final List<byte[]> patterns = new ArrayList<>(classMap.size());
+        final List<byte[]> replacements = new ArrayList<>(classMap.size());
+        int totalLength = 0;
+        for (var entry : classMap.entrySet()) {
+            // Module and package descriptors are never referenced by name, their names only appear as file names in text
+            if (entry.getKey().equals(entry.getValue()) || entry.getKey().endsWith("module-info") || entry.getKey().endsWith("package-info")) continue;
+            final String name = entry.getKey().replace('/', '.'), newName = entry.getValue().replace('/', '.');
+            this.classNames.put(name, newName);
+            final byte[] pattern = name.getBytes(StandardCharsets.UTF_8);
+            patterns.add(pattern);
+            replacements.add(newName.getBytes(StandardCharsets.UTF_8));
+            totalLength += pattern.length;
+        }
+        this.replacements = replacements.toArray(new byte[0][]);
+        this.patternLengths = patterns.stream().mapToInt(pattern -> pattern.length).toArray();
+
+        final int capacity = totalLength + 1;
+        this.depth = new int[capacity];
+        this.fail = new int[capacity];
+        this.output = new int[capacity];
+        this.dictionary = new int[capacity];
+        this.transitions = new Transitions(totalLength);
+        // Children of each node as linked lists, to walk the trie breadth first
+        final int[] firstChild = new int[capacity], nextSibling = new int[capacity];
+        final byte[] edge = new byte[capacity];
+        Arrays.fill(this.output, -1);
+        Arrays.fill(firstChild, -1);
+
+        int nodes = 1;
+        for (int i = 0; i < patterns.size(); i++) {
+            int node = 0;
+            for (byte b : patterns.get(i)) {
+                int child = this.transitions.get(node, b);
+                if (child == -1) {
+                    child = nodes++;
+                    this.transitions.put(node, b, child);
+                    this.depth[child] = this.depth[node] + 1;
+                    edge[child] = b;
+                    nextSibling[child] = firstChild[node];
+                    firstChild[node] = child;
+                }
+                node = child;
+            }
+            this.output[node] = i;
+        }
+
+        this.dictionary[0] = -1;
+        final int[] queue = new int[nodes];
+        int head = 0, tail = 0;
+        for (int child = firstChild[0]; child != -1; child = nextSibling[child]) {
+            this.dictionary[child] = -1;
+            queue[tail++] = child;
+        }
+        while (head < tail) {
+            final int node = queue[head++];
+            for (int child = firstChild[node]; child != -1; child = nextSibling[child]) {
+                final int target = this.next(this.fail[node], edge[child]);
+                this.fail[child] = target;
+                this.dictionary[child] = this.output[target] != -1 ? target : this.dictionary[target];
+                queue[tail++] = child;
+            }
+        }
+    }
+
+    public static ResourceType getType(ResourceWrapper resource) {
+        final String name = resource.getZipEntry().getName();
+        if (name.equalsIgnoreCase(JarFile.MANIFEST_NAME)) return ResourceType.MANIFEST;
+        if (name.startsWith(SERVICES) && name.indexOf('/', SERVICES.length()) == -1) return ResourceType.SERVICE;
+        final int dot = name.lastIndexOf('.');
+        if (dot > name.lastIndexOf('/') && BINARY_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT))) return ResourceType.BINARY;
+        final byte[] bytes = resource.getBytes();
+        for (int i = 0, length = Math.min(bytes.length, SNIFF_LENGTH); i < length; i++) {
+            if (bytes[i] == 0) return ResourceType.BINARY;
+        }
+        return ResourceType.TEXT;
+    }
+
+    public void remap(ResourceWrapper resource) {
+        switch (getType(resource)) {
+            case TEXT -> this.remapText(resource);
+            case SERVICE -> {
+                // The file is named after the service interface, the lines name the implementations
+                final String name = resource.getZipEntry().getName();
+                final String service = this.classNames.get(name.substring(SERVICES.length()));
+                if (service != null) resource.setName(SERVICES + service);
+                this.remapText(resource);
+            }
+            case MANIFEST -> this.remapManifest(resource);
+            case BINARY -> {}
+        }
+    }
+
+    private void remapText(ResourceWrapper resource) {
+        final byte[] bytes = this.remap(resource.getBytes());
+        if (bytes != null) resource.setBytes(bytes);
+    }
+
+    /**
+     * Manifest lines are wrapped at 72 bytes, so names are rewritten in the parsed attribute values
+     */
+    private void remapManifest(ResourceWrapper resource) {
+        try {
+            final Manifest manifest = new Manifest(new ByteArrayInputStream(resource.getBytes()));
+            boolean changed = this.remap(manifest.getMainAttributes());
+            for (Attributes attributes : manifest.getEntries().values()) changed |= this.remap(attributes);
+            if (!changed) return;
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            manifest.write(out);
+            resource.setBytes(out.toByteArray());
+        } catch (IOException e) {
+            // Not a valid manifest, treat it like any other text
+            this.remapText(resource);
+        }
+    }
+
+    private boolean remap(Attributes attributes) {
+        boolean changed = false;
+        for (var entry : attributes.entrySet()) {
+            final byte[] value = this.remap(((String) entry.getValue()).getBytes(StandardCharsets.UTF_8));
+            if (value == null) continue;
+            entry.setValue(new String(value, StandardCharsets.UTF_8));
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * @return the text with every whole class name replaced, or null if nothing matched
+     */
+    public byte[] remap(byte[] text) {
+        if (this.replacements.length == 0) return null;
+        // Accepted matches as start and pattern pairs. Matches are found in the order they end, so a new one either
+        // replaces the accepted ones it contains, overlaps the last one and loses to it, or comes after it.
+        int[] matches = null;
+        int count = 0;
+        int state = 0;
+        for (int i = 0; i < text.length; i++) {
+            state = this.next(state, text[i]);
+            for (int node = this.output[state] != -1 ? state : this.dictionary[state]; node != -1; node = this.dictionary[node]) {
+                final int start = i - this.depth[node] + 1;
+                if (start > 0 && (isNamePart(text[start - 1]) || text[start - 1] == '.')) continue;
+                if (i + 1 < text.length && isNamePart(text[i + 1])) continue;
+                int kept = count;
+                while (kept > 0 && matches[(kept - 1) * 2] >= start) kept--;
+                if (kept > 0 && matches[(kept - 1) * 2] + this.patternLengths[matches[(kept - 1) * 2 + 1]] > start) continue;
+                count = kept;
+                if (matches == null) matches = new int[16];
+                else if (count * 2 == matches.length) matches = Arrays.copyOf(matches, matches.length * 2);
+                matches[count * 2] = start;
+                matches[count * 2 + 1] = this.output[node];
+                count++;
+            }
+        }
+        if (count == 0) return null;
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(text.length + 16);
+        int position = 0;
+        for (int i = 0; i < count; i++) {
+            final int start = matches[i * 2], pattern = matches[i * 2 + 1];
+            out.write(text, position, start - position);
+            out.write(this.replacements[pattern], 0, this.replacements[pattern].length);
+            position = start + this.patternLengths[pattern];
+        }
+        out.write(text, position, text.length - position);
+        return out.toByteArray();
+    }
+
+    private int next(int state, byte b) {
+        while (true) {
+            final int target = this.transitions.get(state, b);
+            if (target != -1) return target;
+            if (state == 0) return 0;
+            state = this.fail[state];
+        }
+    }
+
+    /**
+     * @return whether the byte can be part of a name, any byte of a multibyte character counts
+     */
+    private static boolean isNamePart(byte b) {
+        return b < 0 || (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || (b >= '0' && b <= '9') || b == '_' || b == '$';
+    }
+
+    /**
+     * Trie edges in one open addressing table, keyed by node and byte
+     */
+    private static final class Transitions {
+        private final long[] keys;
+        private final int[] values;
+        private final int mask;
+
+        Transitions(int edges) {
+            final int capacity = Integer.highestOneBit(Math.max(edges, 1) * 2 - 1) << 1;
+            this.keys = new long[capacity];
+            this.values = new int[capacity];
+            this.mask = capacity - 1;
+            Arrays.fill(this.keys, -1L);
+        }
+
+        int get(int node, byte b) {
+            final long key = ((long) node << 8) | (b & 0xFF);
+            for (int slot = this.slot(key); ; slot = (slot + 1) & this.mask) {
+                if (this.keys[slot] == key) return this.values[slot];
+                if (this.keys[slot] == -1L) return -1;
+            }
+        }
+
+        void put(int node, byte b, int target) {
+            final long key = ((long) node << 8) | (b & 0xFF);
+            int slot = this.slot(key);
+            while (this.keys[slot] != -1L) slot = (slot + 1) & this.mask;
+            this.keys[slot] = key;
+            this.values[slot] = target;
+        }
+
+        private int slot(long key) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> 40) & this.mask;
+        }
+    }
+}
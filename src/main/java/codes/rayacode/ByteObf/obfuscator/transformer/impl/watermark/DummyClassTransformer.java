@@ -19,16 +19,19 @@
 package codes.rayacode.ByteObf.obfuscator.transformer.impl.watermark;
 
 import codes.rayacode.ByteObf.obfuscator.ByteObf;
+import codes.rayacode.ByteObf.obfuscator.io.JarWriter;
 import codes.rayacode.ByteObf.obfuscator.transformer.ClassTransformer;
 import codes.rayacode.ByteObf.obfuscator.utils.ASMUtils;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfCategory;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfConfig;
+import codes.rayacode.ByteObf.obfuscator.utils.model.TransformPart;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.tree.ClassNode;
 
 import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.jar.JarEntry;
-import java.util.jar.JarOutputStream;
 
 public class DummyClassTransformer extends ClassTransformer {
 
@@ -37,22 +40,32 @@ public class DummyClassTransformer extends ClassTransformer {
     }
 
     @Override
-    public void transformOutput(JarOutputStream jarOutputStream) {
+    public void transformOutput(JarWriter jarWriter) {
         ClassNode dummy = new ClassNode();
         // Sanitize the class name to be a valid path.
         String sanitizedClassName = this.getByteObf().getConfig().getOptions().getWatermarkOptions().getDummyClassText()
                 .replaceAll("[^a-zA-Z0-9/_-]", "_");
 
         dummy.visit(Opcodes.V1_5, Opcodes.ACC_PUBLIC, sanitizedClassName, null, "java/lang/Object", null);
-        dummy.visitMethod(random.nextInt(100), "\u0001", "(\u0001/)L\u0001/;", null, null);
+        dummy.visitMethod(this.random().nextInt(100), "\u0001", "(\u0001/)L\u0001/;", null, null);
         try {
-            jarOutputStream.putNextEntry(new JarEntry(dummy.name + ".class"));
-            jarOutputStream.write(ASMUtils.toByteArrayDefault(dummy));
+            jarWriter.putNextEntry(new JarEntry(dummy.name + ".class"));
+            jarWriter.write(ASMUtils.toByteArrayDefault(dummy));
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    @Override
+    public boolean isTransformingClasses() {
+        return false;
+    }
+
+    @Override
+    public Set<TransformPart> getWrites() {
+        return EnumSet.of(TransformPart.OUTPUT);
+    }
+
     @Override
     public ByteObfConfig.EnableType getEnableType() {
         return new ByteObfConfig.EnableType(() -> this.getByteObf().getConfig().getOptions().getWatermarkOptions().isDummyClass(), ".OBFUSCATED WITH ByteObf");
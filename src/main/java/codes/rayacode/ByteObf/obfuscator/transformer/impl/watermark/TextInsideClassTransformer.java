@@ -22,8 +22,12 @@ import codes.rayacode.ByteObf.obfuscator.ByteObf;
 import codes.rayacode.ByteObf.obfuscator.transformer.ClassTransformer;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfCategory;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfConfig;
+import codes.rayacode.ByteObf.obfuscator.utils.model.TransformPart;
 import org.objectweb.asm.ClassWriter;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public class TextInsideClassTransformer extends ClassTransformer {
 
     public TextInsideClassTransformer(ByteObf byteObf) {
@@ -35,6 +39,16 @@ public class TextInsideClassTransformer extends ClassTransformer {
         classWriter.newUTF8(this.getByteObf().getConfig().getOptions().getWatermarkOptions().getTextInsideClassText());
     }
 
+    @Override
+    public boolean isTransformingClasses() {
+        return false;
+    }
+
+    @Override
+    public Set<TransformPart> getWrites() {
+        return EnumSet.of(TransformPart.OUTPUT);
+    }
+
     @Override
     public ByteObfConfig.EnableType getEnableType() {
         return new ByteObfConfig.EnableType(() -> this.getByteObf().getConfig().getOptions().getWatermarkOptions().isTextInsideClass(), "ByteObf");
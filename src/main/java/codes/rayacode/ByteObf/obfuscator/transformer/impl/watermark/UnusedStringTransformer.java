@@ -23,11 +23,16 @@ import codes.rayacode.ByteObf.obfuscator.transformer.ClassTransformer;
 import codes.rayacode.ByteObf.obfuscator.utils.ASMUtils;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfCategory;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfConfig;
+import codes.rayacode.ByteObf.obfuscator.utils.model.TransformPart;
 import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.InsnList;
 import org.objectweb.asm.tree.InsnNode;
 import org.objectweb.asm.tree.LdcInsnNode;
 import org.objectweb.asm.tree.MethodNode;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public class UnusedStringTransformer extends ClassTransformer {
 
     public UnusedStringTransformer(ByteObf byteObf) {
@@ -37,8 +42,26 @@ public class UnusedStringTransformer extends ClassTransformer {
     @Override
     public void transformMethod(ClassNode classNode, MethodNode methodNode) {
         if(!ASMUtils.isMethodEligibleToModify(classNode, methodNode)) return;
-        methodNode.instructions.insert(new InsnNode(POP));
-        methodNode.instructions.insert(new LdcInsnNode(this.getByteObf().getConfig().getOptions().getWatermarkOptions().getLdcPopText()));
+        final InsnList insnList = new InsnList();
+        insnList.add(new LdcInsnNode(this.getByteObf().getConfig().getOptions().getWatermarkOptions().getLdcPopText()));
+        insnList.add(new InsnNode(POP));
+        this.insert(methodNode, insnList);
+    }
+
+    @Override
+    public int getMaxCodeGrowth(ClassNode classNode, MethodNode methodNode) {
+        // ldc_w and pop
+        return 4;
+    }
+
+    @Override
+    public Set<TransformPart> getReads() {
+        return EnumSet.of(TransformPart.MEMBERS, TransformPart.CODE);
+    }
+
+    @Override
+    public Set<TransformPart> getWrites() {
+        return EnumSet.of(TransformPart.CODE);
     }
 
     @Override
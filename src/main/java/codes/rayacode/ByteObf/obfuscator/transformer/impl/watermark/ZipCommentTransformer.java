@@ -19,11 +19,14 @@
 package codes.rayacode.ByteObf.obfuscator.transformer.impl.watermark;
 
 import codes.rayacode.ByteObf.obfuscator.ByteObf;
+import codes.rayacode.ByteObf.obfuscator.io.JarWriter;
 import codes.rayacode.ByteObf.obfuscator.transformer.ClassTransformer;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfCategory;
 import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfConfig;
+import codes.rayacode.ByteObf.obfuscator.utils.model.TransformPart;
 
-import java.util.jar.JarOutputStream;
+import java.util.EnumSet;
+import java.util.Set;
 
 public class ZipCommentTransformer extends ClassTransformer {
 
@@ -32,8 +35,18 @@ public class ZipCommentTransformer extends ClassTransformer {
     }
 
     @Override
-    public void transformOutput(JarOutputStream jarOutputStream) {
-        jarOutputStream.setComment(this.getByteObf().getConfig().getOptions().getWatermarkOptions().getZipCommentText());
+    public void transformOutput(JarWriter jarWriter) {
+        jarWriter.setComment(this.getByteObf().getConfig().getOptions().getWatermarkOptions().getZipCommentText());
+    }
+
+    @Override
+    public boolean isTransformingClasses() {
+        return false;
+    }
+
+    @Override
+    public Set<TransformPart> getWrites() {
+        return EnumSet.of(TransformPart.OUTPUT);
     }
 
     @Override
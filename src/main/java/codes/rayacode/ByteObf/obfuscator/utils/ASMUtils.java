@@ -33,26 +33,11 @@ public class ASMUtils implements Opcodes {
 
     private ASMUtils() { }
 
-    // **NEW**: Thresholds to identify overly complex classes that should be skipped by heavy transformers.
+    // Thresholds to identify overly complex classes that heavy transformers skip when growth isn't budgeted
     public static final int CLASS_METHOD_COUNT_THRESHOLD = 400;
     public static final int CLASS_INSTRUCTION_COUNT_THRESHOLD = 100_000;
-
-    /**
-     * **NEW**: Checks if a class is too large or complex for heavy transformations.
-     * This is the main proactive guard against ClassTooLargeException.
-     * @param classNode The class to check.
-     * @return True if the class exceeds complexity thresholds, false otherwise.
-     */
-    public static boolean isClassTooComplex(ClassNode classNode) {
-        if (classNode.methods.size() > CLASS_METHOD_COUNT_THRESHOLD) {
-            return true;
-        }
-        long totalInstructions = classNode.methods.stream()
-                .filter(m -> m.instructions != null)
-                .mapToLong(m -> m.instructions.size())
-                .sum();
-        return totalInstructions > CLASS_INSTRUCTION_COUNT_THRESHOLD;
-    }
+    public static final int MAX_CODE_SIZE = 65535;
+    private static final int FRAME_SIZE_ESTIMATE = 8;
 
     public static class BuiltInstructions {
         public static InsnList getPrintln(String s) {
@@ -180,14 +165,6 @@ public class ASMUtils implements Opcodes {
         return classNode.name.replace("/", ".");
     }
 
-    public static String getName(ClassNode classNode, FieldNode fieldNode) {
-        return classNode.name + "." + fieldNode.name;
-    }
-
-    public static String getName(ClassNode classNode, MethodNode methodNode) {
-        return classNode.name + "." + methodNode.name + methodNode.desc;
-    }
-
     public static InsnList arrayToList(AbstractInsnNode[] insns) {
         final InsnList insnList = new InsnList();
         Arrays.stream(insns).forEach(insnList::add);
@@ -195,15 +172,66 @@ public class ASMUtils implements Opcodes {
     }
 
     public static boolean isMethodSizeValid(MethodNode methodNode) {
-        return getCodeSize(methodNode) <= 65536;
+        return getCodeSize(methodNode) <= MAX_CODE_SIZE;
     }
 
+    /**
+     * @return upper bound of the code size, assuming every jump has to be widened
+     */
     public static int getCodeSize(MethodNode methodNode) {
         CodeSizeEvaluator cse = new CodeSizeEvaluator(null);
         methodNode.accept(cse);
         return cse.getMaxSize();
     }
 
+    /**
+     * @return upper bound of the code the instructions take once they are part of a method
+     */
+    public static int getCodeSize(InsnList insnList) {
+        CodeSizeEvaluator cse = new CodeSizeEvaluator(null);
+        insnList.accept(cse);
+        return cse.getMaxSize();
+    }
+
+    public static int getCodeSize(AbstractInsnNode insn) {
+        CodeSizeEvaluator cse = new CodeSizeEvaluator(null);
+        insn.accept(cse);
+        return cse.getMaxSize();
+    }
+
+    /**
+     * Checks if a class is too large or complex for heavy transformations
+     * @param classNode The class to check.
+     * @return True if the class exceeds complexity thresholds, false otherwise.
+     */
+    public static boolean isClassTooComplex(ClassNode classNode) {
+        if (classNode.methods.size() > CLASS_METHOD_COUNT_THRESHOLD) {
+            return true;
+        }
+        long totalInstructions = classNode.methods.stream()
+                .filter(m -> m.instructions != null)
+                .mapToLong(m -> m.instructions.size())
+                .sum();
+        return totalInstructions > CLASS_INSTRUCTION_COUNT_THRESHOLD;
+    }
+
+    /**
+     * @return estimate of what the instructions add to a class file besides their code,
+     * the pool entries of their numeric constants and a stack map frame for every label
+     */
+    public static int getClassFileOverhead(InsnList insnList) {
+        int overhead = 0;
+        for (AbstractInsnNode insn : insnList) {
+            if (insn instanceof LabelNode) {
+                overhead += FRAME_SIZE_ESTIMATE;
+            } else if (insn instanceof LdcInsnNode ldc) {
+                if (ldc.cst instanceof Long || ldc.cst instanceof Double) overhead += 9;
+                else if (ldc.cst instanceof Integer || ldc.cst instanceof Float) overhead += 5;
+            }
+        }
+        return overhead;
+    }
+
     public static MethodNode findOrCreateInit(ClassNode classNode) {
         MethodNode clinit = findMethod(classNode, "<init>", "()V");
         if (clinit == null) {
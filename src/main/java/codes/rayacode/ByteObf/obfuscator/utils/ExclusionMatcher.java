@@ -0,0 +1,215 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package codes.rayacode.ByteObf.obfuscator.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Exclusion rules compiled once from the exclude text. A line is an optional {@code Transformer:} prefix followed by
+ * a class or member name, {@code com.example.**} to match everything that starts with {@code com.example.},
+ * or a pattern where {@code *} matches within a name segment, {@code **} matches across segments and {@code ?} matches one character.
+ * Names may use either {@code /} or {@code .} as the package separator.
+ */
+public class ExclusionMatcher {
+
+    private static final ExclusionMatcher EMPTY = new ExclusionMatcher();
+
+    private final Rules globalRules = new Rules();
+    private final Map<String, Rules> transformerRules = new HashMap<>();
+
+    private ExclusionMatcher() { }
+
+    public static ExclusionMatcher compile(String exclude) {
+        if (exclude == null || exclude.isBlank()) return EMPTY;
+
+        final ExclusionMatcher matcher = new ExclusionMatcher();
+        exclude.lines().forEach(line -> {
+            String rule = line.trim();
+            Rules rules = matcher.globalRules;
+            final int colon = rule.indexOf(':');
+            if (colon != -1) {
+                rules = matcher.transformerRules.computeIfAbsent(rule.substring(0, colon), k -> new Rules());
+                rule = rule.substring(colon + 1).trim();
+            }
+            if (!rule.isEmpty()) rules.add(rule);
+        });
+        return matcher;
+    }
+
+    /**
+     * @param transformer name of the transformer, or null to only apply rules that don't target a transformer
+     * @param name class name, or a member name in {@code owner.member} form
+     */
+    public boolean isExcluded(String transformer, String name) {
+        return this.isExcluded(transformer, name, null, null);
+    }
+
+    /**
+     * Same as matching {@code owner.member + descriptor} without building the name
+     * @param member member name, or null to match the owner class
+     * @param descriptor method descriptor, or null
+     */
+    public boolean isExcluded(String transformer, String owner, String member, String descriptor) {
+        if (this.globalRules.matches(owner, member, descriptor)) return true;
+        if (transformer == null) return false;
+        final Rules rules = this.transformerRules.get(transformer);
+        return rules != null && rules.matches(owner, member, descriptor);
+    }
+
+    /**
+     * @return whether a rule that applies to the transformer names a member of the class, or a pattern could match one
+     */
+    public boolean hasExcludedMembers(String transformer, String className) {
+        if (this.globalRules.hasRulesUnder(className)) return true;
+        if (transformer == null) return false;
+        final Rules rules = this.transformerRules.get(transformer);
+        return rules != null && rules.hasRulesUnder(className);
+    }
+
+    private static class Rules {
+        private final Node root = new Node();
+        private final List<Pattern> patterns = new ArrayList<>();
+
+        void add(String rule) {
+            final boolean prefix = rule.endsWith(".**");
+            final String text = prefix ? rule.substring(0, rule.length() - 2) : rule;
+            if (text.indexOf('*') != -1 || text.indexOf('?') != -1) {
+                this.patterns.add(toPattern(rule.replace('/', '.')));
+                return;
+            }
+
+            Node node = this.root;
+            for (int i = 0; i < text.length(); i++) {
+                node.hasRules = true;
+                node = node.getOrCreate(dotted(text.charAt(i)));
+            }
+            node.hasRules = true;
+            if (prefix) node.prefix = true;
+            else node.exact = true;
+        }
+
+        boolean matches(String owner, String member, String descriptor) {
+            Node node = walk(this.root, owner, true);
+            if (member != null) {
+                node = walk(node, ".", true);
+                node = walk(node, member, true);
+                if (descriptor != null) node = walk(node, descriptor, true);
+            }
+            if (node != null && (node == MATCH || node.prefix || node.exact)) return true;
+            if (this.patterns.isEmpty()) return false;
+
+            final String name = (member == null ? owner : owner + "." + member + (descriptor == null ? "" : descriptor)).replace('/', '.');
+            for (Pattern pattern : this.patterns)
+                if (pattern.matcher(name).matches()) return true;
+            return false;
+        }
+
+        boolean hasRulesUnder(String className) {
+            final Node node = walk(walk(this.root, className, false), ".", false);
+            if (node != null && node.hasRules) return true;
+            if (this.patterns.isEmpty()) return false;
+
+            // A pattern that runs out of input on the class name and the dot could still match a member name after it
+            final String prefix = className.replace('/', '.') + ".";
+            for (Pattern pattern : this.patterns) {
+                final Matcher matcher = pattern.matcher(prefix);
+                if (matcher.matches() || matcher.hitEnd()) return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Returned by a walk that passed the end of a prefix rule
+     */
+    private static final Node MATCH = new Node();
+
+    private static Node walk(Node node, String s, boolean stopAtPrefix) {
+        for (int i = 0; i < s.length() && node != null && node != MATCH; i++) {
+            if (stopAtPrefix && node.prefix) return MATCH;
+            node = node.get(dotted(s.charAt(i)));
+        }
+        return node;
+    }
+
+    private static char dotted(char c) {
+        return c == '/' ? '.' : c;
+    }
+
+    private static Pattern toPattern(String rule) {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < rule.length(); i++) {
+            final char c = rule.charAt(i);
+            if (c == '*' && i + 1 < rule.length() && rule.charAt(i + 1) == '*') {
+                sb.append(".*");
+                i++;
+            } else if (c == '*') {
+                sb.append("[^.]*");
+            } else if (c == '?') {
+                sb.append("[^.]");
+            } else {
+                sb.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(sb.toString());
+    }
+
+    private static class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private boolean exact;
+        private boolean prefix;
+        // Some rule ends here or further down
+        private boolean hasRules;
+
+        Node get(char c) {
+            final int index = Arrays.binarySearch(this.keys, c);
+            return index >= 0 ? this.children[index] : null;
+        }
+
+        Node getOrCreate(char c) {
+            int index = Arrays.binarySearch(this.keys, c);
+            if (index >= 0) return this.children[index];
+
+            index = -index - 1;
+            final Node child = new Node();
+            this.keys = insert(this.keys, index, c);
+            final Node[] children = new Node[this.children.length + 1];
+            System.arraycopy(this.children, 0, children, 0, index);
+            System.arraycopy(this.children, index, children, index + 1, this.children.length - index);
+            children[index] = child;
+            this.children = children;
+            return child;
+        }
+
+        private static char[] insert(char[] array, int index, char c) {
+            final char[] result = new char[array.length + 1];
+            System.arraycopy(array, 0, result, 0, index);
+            System.arraycopy(array, index, result, index + 1, array.length - index);
+            result[index] = c;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package codes.rayacode.ByteObf.obfuscator.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+public class ThreadUtils {
+
+    private ThreadUtils() { }
+
+    /**
+     * @return a fixed size pool of daemon threads, so a stuck worker never keeps the application alive
+     */
+    public static ExecutorService newFixedThreadPool(String name, int threads) {
+        return Executors.newFixedThreadPool(threads, newThreadFactory(name));
+    }
+
+    /**
+     * Runs the action for every item on a temporary pool and waits for all of them.
+     * The first failure is rethrown on the calling thread after the remaining tasks are cancelled.
+     */
+    public static <T> void forEach(String name, int threads, Collection<T> items, Consumer<? super T> action) {
+        if (threads <= 1 || items.size() <= 1) {
+            items.forEach(action);
+            return;
+        }
+
+        final ExecutorService executor = newFixedThreadPool(name, Math.min(threads, items.size()));
+        try {
+            final List<Future<?>> futures = new ArrayList<>(items.size());
+            for (T item : items) futures.add(executor.submit(() -> action.accept(item)));
+            for (Future<?> future : futures) future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+            if (e.getCause() instanceof Error error) throw error;
+            throw new CompletionException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for " + name + " tasks");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public static ThreadFactory newThreadFactory(String name) {
+        final AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, String.format("ByteObf-%s-%d", name, counter.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -32,13 +32,15 @@ public class ByteObfConfig {
     private final String exclude;
     private final List<String> libraries;
     private final ByteObfOptions byteObfOptions;
+    private final PerformanceOptions performanceOptions;
 
-    public ByteObfConfig(String input, String output, String exclude, List<String> libraries, ByteObfOptions byteObfOptions) {
+    public ByteObfConfig(String input, String output, String exclude, List<String> libraries, ByteObfOptions byteObfOptions, PerformanceOptions performanceOptions) {
         this.input = new File(input);
         this.output = Path.of(output);
         this.exclude = exclude;
         this.libraries = libraries;
         this.byteObfOptions = byteObfOptions;
+        this.performanceOptions = performanceOptions;
     }
 
     public File getInput() {
@@ -61,6 +63,11 @@ public class ByteObfConfig {
         return byteObfOptions;
     }
 
+    public PerformanceOptions getPerformanceOptions() {
+        // Configs saved by older versions don't have this section
+        return performanceOptions != null ? performanceOptions : new PerformanceOptions();
+    }
+
     public static class ByteObfOptions {
         public enum RenameOption {
             @SerializedName("Off") OFF,
@@ -207,5 +214,106 @@ public class ByteObfConfig {
         }
     }
 
+    public static class PerformanceOptions {
+        public enum InputMode {
+            @SerializedName("Stream") STREAM,
+            @SerializedName("Parallel") PARALLEL,
+            @SerializedName("Mapped") MAPPED
+        }
+
+        private final InputMode inputMode;
+        private final int threads;
+        private final String libraryCacheDirectory;
+        private final int libraryCacheSize;
+        private final boolean parallelTransform;
+        private final Long seed;
+        private final int classGrowthBudget;
+        private final int jarGrowthBudget;
+        private final boolean reuseMemberNames;
+
+        public PerformanceOptions() {
+            this(InputMode.PARALLEL, 0, null, 1024, true, null, 0, 0, false);
+        }
+
+        public PerformanceOptions(InputMode inputMode, int threads, String libraryCacheDirectory, int libraryCacheSize, boolean parallelTransform, Long seed, int classGrowthBudget, int jarGrowthBudget, boolean reuseMemberNames) {
+            this.inputMode = inputMode;
+            this.threads = threads;
+            this.libraryCacheDirectory = libraryCacheDirectory;
+            this.libraryCacheSize = libraryCacheSize;
+            this.parallelTransform = parallelTransform;
+            this.seed = seed;
+            this.classGrowthBudget = classGrowthBudget;
+            this.jarGrowthBudget = jarGrowthBudget;
+            this.reuseMemberNames = reuseMemberNames;
+        }
+
+        public InputMode getInputMode() {
+            return inputMode != null ? inputMode : InputMode.PARALLEL;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        /**
+         * @return configured worker count, or the number of available processors if it's not set
+         */
+        public int getThreadCount() {
+            return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        }
+
+        /**
+         * @return directory of the library index cache, {@code .byteobf/library-cache} in the user home if it's not set
+         */
+        public Path getLibraryCacheDirectory() {
+            return libraryCacheDirectory != null && !libraryCacheDirectory.isBlank()
+                    ? Path.of(libraryCacheDirectory) : Path.of(System.getProperty("user.home"), ".byteobf", "library-cache");
+        }
+
+        /**
+         * @return number of library indexes to keep in the cache, 0 disables the cache
+         */
+        public int getLibraryCacheSize() {
+            return libraryCacheSize;
+        }
+
+        /**
+         * @return whether classes are transformed on all worker threads. The output is the same as a sequential run with the same seed.
+         */
+        public boolean isParallelTransform() {
+            return parallelTransform;
+        }
+
+        /**
+         * @return seed of the random decisions of transformers, or null to pick a new one for every run
+         */
+        public Long getSeed() {
+            return seed;
+        }
+
+        /**
+         * @return most code transformers may add to a class, in percent of its class file size. 0 or less is no limit.
+         */
+        public int getClassGrowthBudget() {
+            return classGrowthBudget;
+        }
+
+        /**
+         * @return most code transformers may add to all classes together, in percent of their class file size. 0 or less is no limit.
+         */
+        public int getJarGrowthBudget() {
+            return jarGrowthBudget;
+        }
+
+        /**
+         * @return whether renamed fields and methods get the shortest names that are free where they are visible,
+         * instead of names that are unique in the whole jar. Smaller constant pools, and methods with different descriptors share names.
+         * Off unless the config turns it on, so configs from before the option keep their output.
+         */
+        public boolean isReuseMemberNames() {
+            return reuseMemberNames;
+        }
+    }
+
     public static record EnableType(Supplier<Boolean> isEnabled, Object type) { }
 }
\ No newline at end of file
@@ -0,0 +1,168 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package codes.rayacode.ByteObf.obfuscator.utils.model;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.ClassNode;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Input class that stays as raw bytes until its tree is first requested.
+ * Header information is available without parsing the class.
+ */
+public class ClassWrapper {
+
+    private final SymbolTable symbols;
+    private byte[] bytes;
+    private String name;
+    private String superName;
+    private List<String> interfaces;
+    private int access;
+
+    private volatile ClassNode classNode;
+    private int parseFlags;
+
+    /**
+     * @param symbols table the strings of the class are interned in
+     */
+    public ClassWrapper(SymbolTable symbols, byte[] bytes) {
+        this.symbols = symbols;
+        this.setBytes(bytes);
+    }
+
+    /**
+     * @return the class tree, parsed with the current parse flags on first access
+     */
+    public ClassNode getClassNode() {
+        ClassNode node = this.classNode;
+        if (node == null) {
+            synchronized (this) {
+                node = this.classNode;
+                if (node == null) {
+                    node = new ClassNode();
+                    this.symbols.newClassReader(this.bytes).accept(node, this.parseFlags);
+                    this.classNode = node;
+                }
+            }
+        }
+        return node;
+    }
+
+    public void setClassNode(ClassNode classNode) {
+        this.classNode = classNode;
+    }
+
+    public boolean isMaterialized() {
+        return this.classNode != null;
+    }
+
+    /**
+     * @return {@link ClassReader} flags used when the tree is materialized
+     */
+    public int getParseFlags() {
+        return parseFlags;
+    }
+
+    public void setParseFlags(int parseFlags) {
+        this.parseFlags = parseFlags;
+    }
+
+    /**
+     * @return the class file, as read or as last rewritten without materializing the tree
+     */
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Replaces the class file of a class that isn't materialized
+     */
+    public void setBytes(byte[] bytes) {
+        if (this.classNode != null) throw new IllegalStateException("Class is already materialized: " + this.classNode.name);
+        ClassReader reader = this.symbols.newClassReader(bytes);
+        this.bytes = bytes;
+        this.name = reader.getClassName();
+        this.superName = reader.getSuperName();
+        this.interfaces = List.of(reader.getInterfaces());
+        this.access = reader.getAccess();
+    }
+
+    /**
+     * Scans the constant pool of the original class file without parsing the class.
+     *
+     * @return whether a constant pool string names one of the classes, directly or inside a descriptor or signature
+     */
+    public boolean references(Set<String> internalNames) {
+        final ClassReader reader = new ClassReader(this.bytes);
+        final char[] buffer = new char[reader.getMaxStringLength()];
+        for (int i = 1; i < reader.getItemCount(); i++) {
+            final int offset = reader.getItem(i);
+            // Skip the unused slot after long and double constants and everything that isn't CONSTANT_Utf8
+            if (offset == 0 || this.bytes[offset - 1] != 1) continue;
+
+            final String value = readUtf(this.bytes, offset, buffer);
+            if (internalNames.contains(value)) return true;
+            for (int start = value.indexOf('L'); start != -1; start = value.indexOf('L', start + 1)) {
+                int end = start + 1;
+                while (end < value.length() && value.charAt(end) != ';' && value.charAt(end) != '<') end++;
+                if (end < value.length() && internalNames.contains(value.substring(start + 1, end))) return true;
+            }
+        }
+        return false;
+    }
+
+    private static String readUtf(byte[] b, int offset, char[] buffer) {
+        int index = offset + 2;
+        final int end = index + (((b[offset] & 0xFF) << 8) | (b[offset + 1] & 0xFF));
+        int length = 0;
+        while (index < end) {
+            int c = b[index++];
+            if ((c & 0x80) == 0) {
+                buffer[length++] = (char) (c & 0x7F);
+            } else if ((c & 0xE0) == 0xC0) {
+                buffer[length++] = (char) (((c & 0x1F) << 6) + (b[index++] & 0x3F));
+            } else {
+                buffer[length++] = (char) (((c & 0xF) << 12) + ((b[index++] & 0x3F) << 6) + (b[index++] & 0x3F));
+            }
+        }
+        return new String(buffer, 0, length);
+    }
+
+    public String getName() {
+        ClassNode node = this.classNode;
+        return node != null ? node.name : this.name;
+    }
+
+    public String getSuperName() {
+        ClassNode node = this.classNode;
+        return node != null ? node.superName : this.superName;
+    }
+
+    public List<String> getInterfaces() {
+        ClassNode node = this.classNode;
+        return node != null ? node.interfaces : this.interfaces;
+    }
+
+    public int getAccess() {
+        ClassNode node = this.classNode;
+        return node != null ? node.access : this.access;
+    }
+}
@@ -0,0 +1,61 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package codes.rayacode.ByteObf.obfuscator.utils.model;
+
+import codes.rayacode.ByteObf.obfuscator.utils.ASMUtils;
+import org.objectweb.asm.tree.MethodNode;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Code sizes of the methods of one class, evaluated once per method and then updated as instructions are inserted and removed.
+ * Sizes are upper bounds like {@link ASMUtils#getCodeSize(MethodNode)}.
+ */
+public class CodeSizes {
+
+    private final Map<MethodNode, Integer> sizes = new IdentityHashMap<>();
+
+    public int get(MethodNode methodNode) {
+        Integer size = this.sizes.get(methodNode);
+        if (size == null) {
+            size = ASMUtils.getCodeSize(methodNode);
+            this.sizes.put(methodNode, size);
+        }
+        return size;
+    }
+
+    public void set(MethodNode methodNode, int size) {
+        this.sizes.put(methodNode, size);
+    }
+
+    /**
+     * Methods that weren't evaluated yet are left alone, they are evaluated with the change on first use
+     */
+    public void add(MethodNode methodNode, int delta) {
+        this.sizes.computeIfPresent(methodNode, (m, size) -> size + delta);
+    }
+
+    /**
+     * Forgets the size of a method that was changed without reporting it
+     */
+    public void invalidate(MethodNode methodNode) {
+        this.sizes.remove(methodNode);
+    }
+}
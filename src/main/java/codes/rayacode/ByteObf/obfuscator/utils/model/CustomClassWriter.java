@@ -18,42 +18,26 @@
 
 package codes.rayacode.ByteObf.obfuscator.utils.model;
 
-import codes.rayacode.ByteObf.obfuscator.ByteObf;
-import codes.rayacode.ByteObf.obfuscator.transformer.impl.renamer.ClassRenamerTransformer;
+import codes.rayacode.ByteObf.obfuscator.hierarchy.HierarchyResolver;
 import org.objectweb.asm.ClassWriter;
 
-import java.util.Map;
-
 public class CustomClassWriter extends ClassWriter {
 
-    private final ByteObf byteObf;
-    private final ClassLoader classLoader;
-    public CustomClassWriter(ByteObf byteObf, int flags, ClassLoader classLoader) {
+    private final HierarchyResolver hierarchyResolver;
+    private final String className;
+
+    /**
+     * @param className name of the written class, reported when a type it needs can't be resolved
+     */
+    public CustomClassWriter(HierarchyResolver hierarchyResolver, int flags, String className) {
         super(flags);
-        this.byteObf = byteObf;
-        this.classLoader = classLoader;
+        this.hierarchyResolver = hierarchyResolver;
+        this.className = className;
     }
 
     @Override
     protected String getCommonSuperClass(String type1, String type2) {
-        try {
-            return super.getCommonSuperClass(type1, type2);
-        } catch (TypeNotPresentException e) {
-            return super.getCommonSuperClass(this.findTypeOrDefault(type1), this.findTypeOrDefault(type2));
-        }
-    }
-
-    private String findTypeOrDefault(String type) {
-        var crt = this.byteObf.getTransformHandler().getClassTransformer(ClassRenamerTransformer.class);
-        return crt.getMap().entrySet().stream()
-                .filter(entry -> entry.getValue().equals(type))
-                .map(Map.Entry::getKey)
-                .findFirst()
-                .orElse(type);
-    }
-
-    @Override
-    public ClassLoader getClassLoader() {
-        return this.classLoader;
+        // Resolved from the class and library indexes, classes are never loaded
+        return this.hierarchyResolver.getCommonSuperClass(type1, type2, this.className);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,165 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package codes.rayacode.ByteObf.obfuscator.utils.model;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Bytes of code the transformers may still add to one class. The class budget is shared between the transformers
+ * by their planned demand, and each transformer's share between the methods by their demand, where the demand of a method
+ * is the upper bound of its growth. Injection points are then picked at the density the remaining allowance of the method allows.
+ */
+public class GrowthBudget {
+
+    private final long[] plannedDemands;
+    private long plannedDemand;
+    private long remaining;
+    private long spent;
+
+    // Current transformer
+    private long share;
+    private long injectedBound;
+    private long injectedCost;
+
+    // Current method
+    private long allowance;
+    private long methodDemand;
+    private long headroom;
+    private boolean inMethod;
+
+    /**
+     * @param plannedDemands demand of every transformer in the class, indexed like the transformers
+     */
+    public GrowthBudget(long allowance, long[] plannedDemands) {
+        this.remaining = allowance;
+        this.plannedDemands = plannedDemands;
+        this.plannedDemand = Arrays.stream(plannedDemands).sum();
+    }
+
+    public void beginTransformer(int index) {
+        final long demand = this.plannedDemands[index];
+        this.share = this.plannedDemand > 0 ? (long) ((double) this.remaining * demand / this.plannedDemand) : 0;
+        this.plannedDemand -= demand;
+        this.injectedBound = 0;
+        this.injectedCost = 0;
+        this.inMethod = false;
+    }
+
+    /**
+     * @param demand upper bound of the growth of the method
+     * @param pendingDemand demand of the method and the methods the transformer hasn't reached yet
+     * @param headroom bytes the method can grow by before it reaches the size limit
+     */
+    public void beginMethod(long demand, long pendingDemand, long headroom) {
+        this.allowance = pendingDemand > 0 ? (long) ((double) Math.max(0, this.share) * demand / pendingDemand) : 0;
+        this.methodDemand = demand;
+        this.headroom = headroom;
+        this.inMethod = true;
+    }
+
+    public void endMethod() {
+        this.inMethod = false;
+    }
+
+    /**
+     * Decides on the next injection point of the method. The probability is the remaining allowance over the demand
+     * of the remaining points, scaled by what earlier injections actually cost compared to their bound.
+     * @param maxGrowth upper bound of the code the injection adds
+     */
+    public boolean tryInject(Random random, int maxGrowth) {
+        if (!this.inMethod) return false;
+        final long demand = Math.max(this.methodDemand, maxGrowth);
+        this.methodDemand -= maxGrowth;
+        if (this.allowance <= 0 || this.headroom < maxGrowth) return false;
+
+        final double ratio = this.injectedBound > 0 ? Math.min(4D, Math.max(0.05D, (double) this.injectedCost / this.injectedBound)) : 1D;
+        final double expected = demand * ratio;
+        if (expected > this.allowance && random.nextDouble() * expected >= this.allowance) return false;
+        this.injectedBound += maxGrowth;
+        return true;
+    }
+
+    /**
+     * Takes bytes added to the class off the budget, removed bytes are given back
+     * @param codeBytes bytes added to the code of the method
+     * @param bytes estimate of the bytes added to the class file
+     */
+    public void spend(int codeBytes, int bytes) {
+        this.remaining -= bytes;
+        this.spent += bytes;
+        this.share -= bytes;
+        if (this.inMethod) {
+            this.allowance -= bytes;
+            this.headroom -= codeBytes;
+            this.injectedCost += bytes;
+        }
+    }
+
+    /**
+     * @return bytes taken off the budget so far, less what was given back
+     */
+    public long getSpent() {
+        return this.spent;
+    }
+
+    /**
+     * Gives back bytes spent on changes that were reverted
+     */
+    public void refund(long bytes) {
+        this.remaining += bytes;
+        this.share += bytes;
+        this.spent -= bytes;
+    }
+
+    /**
+     * Splits the growth allowed for the whole jar between the classes. Every class gets at most its own limit and its demand,
+     * if that's more than the jar limit the remaining classes get the same share of their size.
+     * @param classLimit percent of the class size, 0 or less is no limit
+     * @param jarLimit percent of the size of all classes, 0 or less is no limit
+     * @return allowance of every class
+     */
+    public static long[] allocate(long[] sizes, long[] demands, int classLimit, int jarLimit) {
+        final int count = sizes.length;
+        final long[] allowances = new long[count];
+        long total = 0, totalSize = 0;
+        for (int i = 0; i < count; i++) {
+            allowances[i] = classLimit > 0 ? Math.min(demands[i], sizes[i] * classLimit / 100) : demands[i];
+            total += allowances[i];
+            totalSize += sizes[i];
+        }
+        long jarAllowance = jarLimit > 0 ? totalSize * jarLimit / 100 : Long.MAX_VALUE;
+        if (total <= jarAllowance) return allowances;
+
+        // Classes that want the least for their size are filled first, what they leave is shared by the others
+        final Integer[] order = IntStream.range(0, count).boxed()
+                .sorted(Comparator.comparingDouble(i -> sizes[i] > 0 ? (double) allowances[i] / sizes[i] : 0D))
+                .toArray(Integer[]::new);
+        long pendingSize = totalSize;
+        for (int i : order) {
+            final long fair = pendingSize > 0 ? (long) ((double) jarAllowance * sizes[i] / pendingSize) : 0;
+            allowances[i] = Math.min(allowances[i], fair);
+            jarAllowance -= allowances[i];
+            pendingSize -= sizes[i];
+        }
+        return allowances;
+    }
+}
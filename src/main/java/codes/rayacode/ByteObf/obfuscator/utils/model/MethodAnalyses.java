@@ -0,0 +1,50 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package codes.rayacode.ByteObf.obfuscator.utils.model;
+
+import org.objectweb.asm.tree.MethodNode;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Analyses of the methods of one class, shared by the transformers of the class. A method is analyzed on first use
+ * and again after its code was changed.
+ */
+public class MethodAnalyses {
+
+    private final Map<MethodNode, MethodAnalysis> analyses = new IdentityHashMap<>();
+
+    public MethodAnalysis get(String owner, MethodNode methodNode) {
+        MethodAnalysis analysis = this.analyses.get(methodNode);
+        // Transformers that don't go through the insert and remove methods don't report their changes
+        if (analysis == null || !analysis.isCurrent(methodNode)) {
+            analysis = MethodAnalysis.analyze(owner, methodNode);
+            this.analyses.put(methodNode, analysis);
+        }
+        return analysis;
+    }
+
+    /**
+     * Forgets the analysis of a method whose code was changed. Analyses handed out before stay valid for the instructions they know.
+     */
+    public void invalidate(MethodNode methodNode) {
+        this.analyses.remove(methodNode);
+    }
+}
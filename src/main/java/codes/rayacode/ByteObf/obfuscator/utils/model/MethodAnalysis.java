@@ -0,0 +1,249 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package codes.rayacode.ByteObf.obfuscator.utils.model;
+
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.IincInsnNode;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.TryCatchBlockNode;
+import org.objectweb.asm.tree.TypeInsnNode;
+import org.objectweb.asm.tree.VarInsnNode;
+import org.objectweb.asm.tree.analysis.Analyzer;
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+import org.objectweb.asm.tree.analysis.BasicInterpreter;
+import org.objectweb.asm.tree.analysis.BasicValue;
+import org.objectweb.asm.tree.analysis.Frame;
+import org.objectweb.asm.tree.analysis.Interpreter;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Frames of the code of a method and its try catch blocks, as it was when it was analyzed. Frames hold basic values,
+ * objects that aren't constructed yet are told apart with {@link #isUninitialized(BasicValue)}.
+ * Instructions inserted afterwards are unknown to the analysis, instructions that were there keep their results.
+ */
+public class MethodAnalysis implements Opcodes {
+
+    private final Map<AbstractInsnNode, Integer> indexes;
+    private final Frame<BasicValue>[] frames;
+    // Start, end and handler index of every try catch block
+    private final int[][] tryCatchBlocks;
+
+    private MethodAnalysis(Map<AbstractInsnNode, Integer> indexes, Frame<BasicValue>[] frames, int[][] tryCatchBlocks) {
+        this.indexes = indexes;
+        this.frames = frames;
+        this.tryCatchBlocks = tryCatchBlocks;
+    }
+
+    public static MethodAnalysis analyze(String owner, MethodNode methodNode) {
+        final AbstractInsnNode[] insns = methodNode.instructions.toArray();
+        final Map<AbstractInsnNode, Integer> indexes = new IdentityHashMap<>(insns.length * 2);
+        for (int i = 0; i < insns.length; i++) indexes.put(insns[i], i);
+
+        final List<TryCatchBlockNode> tryCatchBlocks = methodNode.tryCatchBlocks != null ? methodNode.tryCatchBlocks : List.of();
+        final int[][] ranges = tryCatchBlocks.stream()
+                .map(tryCatchBlock -> new int[] { indexes.get(tryCatchBlock.start), indexes.get(tryCatchBlock.end), indexes.get(tryCatchBlock.handler) })
+                .toArray(int[][]::new);
+        return new MethodAnalysis(indexes, getFrames(owner, methodNode, insns), ranges);
+    }
+
+    /**
+     * @return whether the code of the method looks like it did when it was analyzed. Only the bounds of the code are compared.
+     */
+    public boolean isCurrent(MethodNode methodNode) {
+        final InsnList instructions = methodNode.instructions;
+        if (instructions.size() != this.indexes.size()) return false;
+        if (instructions.size() == 0) return true;
+        final Integer first = this.indexes.get(instructions.getFirst()), last = this.indexes.get(instructions.getLast());
+        return first != null && first == 0 && last != null && last == instructions.size() - 1;
+    }
+
+    /**
+     * @return locals and operand stack before the instruction is executed, or null if the instruction is unreachable or unknown
+     */
+    public Frame<BasicValue> getFrame(AbstractInsnNode insn) {
+        final Integer index = this.indexes.get(insn);
+        return index != null && this.frames != null ? this.frames[index] : null;
+    }
+
+    /**
+     * @return frames at the handlers of the try catch blocks that cover the instruction, null where a frame is unknown
+     */
+    public List<Frame<BasicValue>> getHandlerFrames(AbstractInsnNode insn) {
+        final Integer index = this.indexes.get(insn);
+        if (index == null) return List.of();
+        final List<Frame<BasicValue>> handlerFrames = new ArrayList<>();
+        for (int[] tryCatchBlock : this.tryCatchBlocks)
+            if (tryCatchBlock[0] <= index && index < tryCatchBlock[1]) handlerFrames.add(this.frames != null ? this.frames[tryCatchBlock[2]] : null);
+        return handlerFrames;
+    }
+
+    /**
+     * Other transformers may have added locals and stack values without updating the maximums, the verifier
+     * can't tell those apart from broken code. Locals are counted from the code and the stack is grown until it fits.
+     *
+     * @return frames by instruction index, or null if the code doesn't verify
+     */
+    private static Frame<BasicValue>[] getFrames(String owner, MethodNode methodNode, AbstractInsnNode[] insns) {
+        if (insns.length == 0) return null;
+        final MethodNode method = new MethodNode(ASM9, methodNode.access, methodNode.name, methodNode.desc, null, null);
+        method.instructions = methodNode.instructions;
+        method.tryCatchBlocks = methodNode.tryCatchBlocks;
+        method.maxLocals = getMaxLocals(methodNode, insns);
+        method.maxStack = Math.max(methodNode.maxStack, 1);
+        while (true) {
+            try {
+                return new Analyzer<>(new ConstructionInterpreter(methodNode.name)) {
+                    @Override
+                    protected Frame<BasicValue> newFrame(int numLocals, int numStack) {
+                        return new ConstructionFrame(numLocals, numStack);
+                    }
+
+                    @Override
+                    protected Frame<BasicValue> newFrame(Frame<? extends BasicValue> frame) {
+                        return new ConstructionFrame(frame);
+                    }
+                }.analyze(owner, method);
+            } catch (AnalyzerException e) {
+                if (!(e.getCause() instanceof IndexOutOfBoundsException) || method.maxStack >= 0xFFFF) return null;
+                method.maxStack = Math.min(method.maxStack * 2, 0xFFFF);
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * @return whether the value is an object whose constructor wasn't called yet
+     */
+    public static boolean isUninitialized(BasicValue value) {
+        return value instanceof UninitializedValue;
+    }
+
+    /**
+     * Value of an object between its creation and its constructor call. Every creation is a value of its own, so the copies
+     * of one object can be told apart from other objects of the same type.
+     */
+    private static final class UninitializedValue extends BasicValue {
+
+        private UninitializedValue(Type type) {
+            super(type);
+        }
+
+        @Override
+        public boolean equals(Object value) {
+            return value == this;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+
+    /**
+     * Basic interpreter that keeps track of objects that aren't constructed yet, the receiver of a constructor included
+     */
+    private static final class ConstructionInterpreter extends BasicInterpreter {
+
+        private final Map<AbstractInsnNode, BasicValue> created = new IdentityHashMap<>();
+        private final boolean constructor;
+        private BasicValue uninitializedThis;
+
+        private ConstructionInterpreter(String methodName) {
+            super(ASM9);
+            this.constructor = "<init>".equals(methodName);
+        }
+
+        @Override
+        public BasicValue newParameterValue(boolean isInstanceMethod, int local, Type type) {
+            if (this.constructor && isInstanceMethod && local == 0) {
+                if (this.uninitializedThis == null) this.uninitializedThis = new UninitializedValue(type);
+                return this.uninitializedThis;
+            }
+            return super.newParameterValue(isInstanceMethod, local, type);
+        }
+
+        @Override
+        public BasicValue newOperation(AbstractInsnNode insn) throws AnalyzerException {
+            if (insn.getOpcode() != NEW) return super.newOperation(insn);
+            return this.created.computeIfAbsent(insn, i -> new UninitializedValue(Type.getObjectType(((TypeInsnNode) i).desc)));
+        }
+
+        @Override
+        public BasicValue merge(BasicValue value1, BasicValue value2) {
+            if (value1 == value2) return value1;
+            if (isUninitialized(value1) || isUninitialized(value2)) return BasicValue.UNINITIALIZED_VALUE;
+            return super.merge(value1, value2);
+        }
+    }
+
+    /**
+     * Frame that marks every copy of an object as constructed once its constructor is called
+     */
+    private static final class ConstructionFrame extends Frame<BasicValue> {
+
+        private ConstructionFrame(int numLocals, int numStack) {
+            super(numLocals, numStack);
+        }
+
+        private ConstructionFrame(Frame<? extends BasicValue> frame) {
+            super(frame);
+        }
+
+        @Override
+        public void execute(AbstractInsnNode insn, Interpreter<BasicValue> interpreter) throws AnalyzerException {
+            if (insn.getOpcode() != INVOKESPECIAL || !"<init>".equals(((MethodInsnNode) insn).name)) {
+                super.execute(insn, interpreter);
+                return;
+            }
+            final BasicValue receiver = this.getStack(this.getStackSize() - Type.getArgumentTypes(((MethodInsnNode) insn).desc).length - 1);
+            super.execute(insn, interpreter);
+            if (!isUninitialized(receiver)) return;
+            final BasicValue constructed = interpreter.newValue(receiver.getType());
+            for (int i = 0; i < this.getLocals(); i++)
+                if (this.getLocal(i) == receiver) this.setLocal(i, constructed);
+            for (int i = 0; i < this.getStackSize(); i++)
+                if (this.getStack(i) == receiver) this.setStack(i, constructed);
+        }
+    }
+
+    private static int getMaxLocals(MethodNode methodNode, AbstractInsnNode[] insns) {
+        int maxLocals = Math.max(methodNode.maxLocals, Type.getArgumentsAndReturnSizes(methodNode.desc) >> 2);
+        for (AbstractInsnNode insn : insns) {
+            if (insn instanceof VarInsnNode varInsn) {
+                final int size = switch (varInsn.getOpcode()) {
+                    case LLOAD, DLOAD, LSTORE, DSTORE -> 2;
+                    default -> 1;
+                };
+                maxLocals = Math.max(maxLocals, varInsn.var + size);
+            } else if (insn instanceof IincInsnNode iinc) {
+                maxLocals = Math.max(maxLocals, iinc.var + 1);
+            }
+        }
+        return maxLocals;
+    }
+}
@@ -0,0 +1,52 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package codes.rayacode.ByteObf.obfuscator.utils.model;
+
+import codes.rayacode.ByteObf.obfuscator.utils.ASMUtils;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.TryCatchBlockNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Code of a method as it was before a transformer ran, to undo the transformer if the method gets too large
+ */
+public class MethodSnapshot {
+
+    private final AbstractInsnNode[] instructions;
+    private final List<TryCatchBlockNode> tryCatchBlocks;
+    private final int maxLocals;
+    private final int maxStack;
+
+    public MethodSnapshot(MethodNode methodNode) {
+        this.instructions = methodNode.instructions.toArray();
+        this.tryCatchBlocks = methodNode.tryCatchBlocks != null ? new ArrayList<>(methodNode.tryCatchBlocks) : null;
+        this.maxLocals = methodNode.maxLocals;
+        this.maxStack = methodNode.maxStack;
+    }
+
+    public void restore(MethodNode methodNode) {
+        methodNode.instructions = ASMUtils.arrayToList(this.instructions);
+        methodNode.tryCatchBlocks = this.tryCatchBlocks;
+        methodNode.maxLocals = this.maxLocals;
+        methodNode.maxStack = this.maxStack;
+    }
+}
@@ -18,16 +18,41 @@
 
 package codes.rayacode.ByteObf.obfuscator.utils.model;
 
+import codes.rayacode.ByteObf.obfuscator.io.JarWriter;
+import codes.rayacode.ByteObf.obfuscator.io.ZipArchive;
+import codes.rayacode.ByteObf.obfuscator.io.ZipArchiveEntry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.jar.JarEntry;
 import java.util.zip.ZipEntry;
 
 public class ResourceWrapper {
 
-    private final ZipEntry zipEntry;
+    private ZipEntry zipEntry;
     private byte[] bytes;
 
+    // Set while the content is still the one stored in the input archive
+    private ZipArchive archive;
+    private ZipArchiveEntry archiveEntry;
+    private boolean modified;
+
     public ResourceWrapper(ZipEntry zipEntry, byte[] bytes) {
         this.zipEntry = zipEntry;
         this.bytes = bytes;
+        this.archive = null;
+        this.archiveEntry = null;
+    }
+
+    /**
+     * @param bytes already read content, or null to read it from the archive when it's first needed
+     */
+    public ResourceWrapper(ZipArchive archive, ZipArchiveEntry archiveEntry, byte[] bytes) {
+        this.zipEntry = archiveEntry.toZipEntry();
+        this.bytes = bytes;
+        this.archive = archive;
+        this.archiveEntry = archiveEntry;
     }
 
     public ZipEntry getZipEntry() {
@@ -35,10 +60,58 @@ public class ResourceWrapper {
     }
 
     public byte[] getBytes() {
+        if (this.bytes == null && this.isBackedByArchive()) {
+            try {
+                this.bytes = this.archive.read(this.archiveEntry);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read resource " + this.zipEntry.getName(), e);
+            }
+        }
         return bytes;
     }
 
     public void setBytes(byte[] bytes) {
+        // Content that didn't change can still be copied from the input as it is
+        if (this.bytes != null && Arrays.equals(this.bytes, bytes)) return;
         this.bytes = bytes;
+        this.modified = true;
+    }
+
+    /**
+     * Moves the resource to another entry
+     */
+    public void setName(String name) {
+        this.getBytes();
+        this.zipEntry = new ZipEntry(name);
+        this.modified = true;
+    }
+
+    public boolean hasContent() {
+        return this.bytes != null || this.isBackedByArchive();
+    }
+
+    /**
+     * Loads the content and drops the link to the input archive, so the archive can be closed or overwritten
+     */
+    public void detach() {
+        this.getBytes();
+        this.archive = null;
+        this.archiveEntry = null;
+    }
+
+    /**
+     * Writes the resource as a new entry. Unmodified content is copied from the input archive still compressed.
+     */
+    public void writeTo(JarWriter out) throws IOException {
+        if (this.isBackedByArchive()) {
+            out.copyEntry(this.archive, this.archiveEntry);
+        } else if (this.bytes != null) {
+            out.putNextEntry(new JarEntry(this.zipEntry.getName()));
+            out.write(this.bytes);
+        }
+    }
+
+    private boolean isBackedByArchive() {
+        return this.archive != null && !this.modified;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,102 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package codes.rayacode.ByteObf.obfuscator.utils.model;
+
+import org.objectweb.asm.ClassReader;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared instances of the strings read from the input, and integer ids for the symbols of renamed members.
+ * <p>
+ * A parsed class holds its own copy of every owner name, member name and descriptor in its constant pool, even though
+ * most of them repeat across the whole input. Readers from {@link #newClassReader} hand out one instance per string instead.
+ */
+public class SymbolTable {
+
+    /**
+     * A member addressed by the ids of its owner, name and descriptor. Fields are looked up by owner and name, their descriptor is -1.
+     */
+    public record MemberKey(int owner, int name, int descriptor) { }
+
+    private final Map<String, String> strings = new ConcurrentHashMap<>();
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    public String intern(String string) {
+        if (string == null) return null;
+        final String existing = this.strings.putIfAbsent(string, string);
+        return existing != null ? existing : string;
+    }
+
+    /**
+     * @return a reader that interns every string it reads
+     */
+    public ClassReader newClassReader(byte[] bytes) {
+        return new ClassReader(bytes) {
+            @Override
+            public String readUTF8(int offset, char[] charBuffer) {
+                return intern(super.readUTF8(offset, charBuffer));
+            }
+        };
+    }
+
+    /**
+     * @return id of the symbol, assigned on first use
+     */
+    public int id(String symbol) {
+        return this.ids.computeIfAbsent(symbol, k -> this.nextId.getAndIncrement());
+    }
+
+    /**
+     * @return id of the symbol, or -1 if it never got one
+     */
+    public int find(String symbol) {
+        final Integer id = this.ids.get(symbol);
+        return id != null ? id : -1;
+    }
+
+    public MemberKey fieldKey(String owner, String name) {
+        return new MemberKey(this.id(owner), this.id(name), -1);
+    }
+
+    public MemberKey methodKey(String owner, String name, String descriptor) {
+        return new MemberKey(this.id(owner), this.id(name), this.id(descriptor));
+    }
+
+    /**
+     * @return key of the field, or null if one of its symbols never got an id, then no field with this key exists
+     */
+    public MemberKey findField(String owner, String name) {
+        final int ownerId = this.find(owner), nameId;
+        if (ownerId == -1 || (nameId = this.find(name)) == -1) return null;
+        return new MemberKey(ownerId, nameId, -1);
+    }
+
+    /**
+     * @return key of the method, or null if one of its symbols never got an id, then no method with this key exists
+     */
+    public MemberKey findMethod(String owner, String name, String descriptor) {
+        final int ownerId = this.find(owner), nameId, descriptorId;
+        if (ownerId == -1 || (nameId = this.find(name)) == -1 || (descriptorId = this.find(descriptor)) == -1) return null;
+        return new MemberKey(ownerId, nameId, descriptorId);
+    }
+}
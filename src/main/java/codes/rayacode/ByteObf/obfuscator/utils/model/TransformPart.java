@@ -0,0 +1,41 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package codes.rayacode.ByteObf.obfuscator.utils.model;
+
+/**
+ * Parts of the input and output that transformers read and write. Transformers that don't write
+ * anything the other one touches can run in any order.
+ */
+public enum TransformPart {
+    /** Set and order of the input classes */
+    CLASSES,
+    /** Class header, fields and methods, without their code */
+    MEMBERS,
+    /** Instructions, try catch blocks and stack sizes of methods. Adding or removing any node of the instructions writes the code. */
+    CODE,
+    /** Lines of the line number nodes in the code */
+    LINE_NUMBERS,
+    /** Local variable tables and parameter names of methods */
+    LOCAL_VARIABLES,
+    /** Source file, inner classes and other class attributes */
+    ATTRIBUTES,
+    RESOURCES,
+    /** Additional entries and the comment of the output jar */
+    OUTPUT
+}
@@ -38,6 +38,9 @@ import java.nio.file.Path;
 public class ConfigManager {
 
     private final Controller controller;
+    // Performance options have no controls in the GUI, keep the loaded ones
+    private ByteObfConfig.PerformanceOptions performanceOptions = new ByteObfConfig.PerformanceOptions();
+
     public ConfigManager(Controller controller) {
         this.controller = controller;
     }
@@ -79,6 +82,7 @@ public class ConfigManager {
         c.output.setText(byteObfConfig.getOutput().toFile().getAbsolutePath());
         c.exclude.setText(byteObfConfig.getExclude());
         c.libraries.getItems().addAll(byteObfConfig.getLibraries());
+        this.performanceOptions = byteObfConfig.getPerformanceOptions();
 
         // Obfuscation options
         c.getComboBox(LineNumberTransformer.class).getSelectionModel().select(ByteObfUtils.getSerializedName(byteObfConfig.getOptions().getLineNumbers()));
@@ -151,7 +155,7 @@ public class ConfigManager {
                 (ByteObfConfig.ByteObfOptions.ConstantObfuscationOption) c.getEnum(ConstantTransformer.class),
                 watermarkOptions
         );
-        ByteObfConfig byteObfConfig = new ByteObfConfig(c.input.getText(), c.output.getText(), c.exclude.getText(), this.controller.libraries.getItems(), byteObfOptions);
+        ByteObfConfig byteObfConfig = new ByteObfConfig(c.input.getText(), c.output.getText(), c.exclude.getText(), this.controller.libraries.getItems(), byteObfOptions, this.performanceOptions);
 
         try {
             this.saveConfig(byteObfConfig);
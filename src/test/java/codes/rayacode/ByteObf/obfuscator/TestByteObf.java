@@ -0,0 +1,57 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+
+package codes.rayacode.ByteObf.obfuscator;
+
+import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfConfig;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ByteObf that keeps its log and errors in memory, for tests that run parts of the obfuscator without the UI
+ */
+public class TestByteObf extends ByteObf {
+
+    private final List<String> logs = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+
+    public TestByteObf(ByteObfConfig config) {
+        super(config, message -> { }, message -> { });
+    }
+
+    @Override
+    public void log(String format, Object... args) {
+        this.logs.add(String.format(format, args));
+    }
+
+    @Override
+    public void err(String format, Object... args) {
+        this.errors.add(String.format(format, args));
+    }
+
+    public List<String> getLogs() {
+        return logs;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,171 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package codes.rayacode.ByteObf.obfuscator.hierarchy;
+
+import codes.rayacode.ByteObf.obfuscator.TestByteObf;
+import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfConfig;
+import codes.rayacode.ByteObf.obfuscator.utils.model.ClassWrapper;
+import codes.rayacode.ByteObf.obfuscator.utils.model.CustomClassWriter;
+import codes.rayacode.ByteObf.obfuscator.utils.model.SymbolTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchyResolverTest implements Opcodes {
+
+    @TempDir
+    Path directory;
+
+    private final Map<String, byte[]> inputClasses = new LinkedHashMap<>();
+    private final Map<String, byte[]> libraryClasses = new LinkedHashMap<>();
+
+    @Test
+    void matchesTheClassLoaderAnswer() throws IOException {
+        define(this.libraryClasses, ACC_PUBLIC, "lib/L", "java/lang/Object");
+        define(this.libraryClasses, ACC_PUBLIC | ACC_INTERFACE | ACC_ABSTRACT, "lib/LI", "java/lang/Object");
+        define(this.inputClasses, ACC_PUBLIC | ACC_INTERFACE | ACC_ABSTRACT, "in/I", "java/lang/Object");
+        define(this.inputClasses, ACC_PUBLIC, "in/Base", "java/lang/Object");
+        define(this.inputClasses, ACC_PUBLIC, "in/A", "in/Base", "in/I");
+        define(this.inputClasses, ACC_PUBLIC, "in/B", "in/Base");
+        define(this.inputClasses, ACC_PUBLIC, "in/C", "lib/L", "lib/LI");
+        define(this.inputClasses, ACC_PUBLIC, "in/D", "lib/L");
+        define(this.inputClasses, ACC_PUBLIC, "in/E", "java/util/ArrayList");
+
+        final HierarchyResolver resolver = this.createResolver();
+        final ResolverWriter writer = new ResolverWriter(resolver);
+        final ClassLoaderWriter classLoaderWriter = this.createClassLoaderWriter();
+        final String[][] pairs = {
+                { "in/A", "in/B" }, // Input superclass
+                { "in/B", "in/A" },
+                { "in/A", "in/Base" },
+                { "in/C", "in/D" }, // Library superclass
+                { "in/C", "lib/L" },
+                { "in/D", "in/A" },
+                { "in/E", "java/util/LinkedList" }, // Runtime superclass
+                { "in/E", "java/lang/String" },
+                { "in/A", "in/I" }, // Implemented interface
+                { "in/B", "in/I" }, // Interfaces that aren't implemented fall back to Object
+                { "in/I", "lib/LI" },
+                { "in/C", "lib/LI" },
+                { "lib/LI", "in/D" },
+                { "java/lang/Runnable", "in/A" },
+        };
+        for (String[] pair : pairs) {
+            assertEquals(classLoaderWriter.commonSuperClass(pair[0], pair[1]), writer.commonSuperClass(pair[0], pair[1]), pair[0] + ", " + pair[1]);
+        }
+        assertEquals(Map.of(), resolver.getUnresolvedTypes());
+    }
+
+    @Test
+    void reportsMissingClasses() throws IOException {
+        define(this.inputClasses, ACC_PUBLIC, "in/A", "java/lang/Object");
+        define(this.inputClasses, ACC_PUBLIC, "in/Orphan", "missing/Base");
+
+        final HierarchyResolver resolver = this.createResolver();
+        final ResolverWriter writer = new ResolverWriter(resolver);
+        final ClassLoaderWriter classLoaderWriter = this.createClassLoaderWriter();
+        assertThrows(TypeNotPresentException.class, () -> classLoaderWriter.commonSuperClass("missing/Type", "in/A"));
+        assertThrows(TypeNotPresentException.class, () -> writer.commonSuperClass("missing/Type", "in/A"));
+        // A missing superclass is reported with the class that needed it, a class loader would fail to define the class
+        assertThrows(TypeNotPresentException.class, () -> resolver.getCommonSuperClass("in/Orphan", "in/A", "in/Other"));
+        assertEquals(Map.of("missing/Type", "in/Requester", "missing/Base", "in/Other"), resolver.getUnresolvedTypes());
+    }
+
+    private HierarchyResolver createResolver() throws IOException {
+        final SymbolTable symbols = new SymbolTable();
+        final List<ClassWrapper> classWrappers = new ArrayList<>();
+        this.inputClasses.values().forEach(bytes -> classWrappers.add(new ClassWrapper(symbols, bytes)));
+        final var performanceOptions = new ByteObfConfig.PerformanceOptions(ByteObfConfig.PerformanceOptions.InputMode.PARALLEL,
+                1, null, 0, false, 0L, 0, 0, false);
+        final ByteObfConfig config = new ByteObfConfig("input.jar", "output.jar", null,
+                List.of(this.write("library.jar", this.libraryClasses).toString()), null, performanceOptions);
+        return new HierarchyResolver(new ClassIndex(classWrappers), LibraryIndex.load(new TestByteObf(config)), new ClassNameMap());
+    }
+
+    private ClassLoaderWriter createClassLoaderWriter() throws IOException {
+        return new ClassLoaderWriter(new URLClassLoader(new URL[] {
+                this.write("input.jar", this.inputClasses).toUri().toURL(), this.write("library.jar", this.libraryClasses).toUri().toURL()
+        }));
+    }
+
+    private Path write(String name, Map<String, byte[]> classes) throws IOException {
+        final Path path = this.directory.resolve(name);
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(path))) {
+            for (var entry : classes.entrySet()) {
+                out.putNextEntry(new ZipEntry(entry.getKey() + ".class"));
+                out.write(entry.getValue());
+                out.closeEntry();
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Answers like frames were computed before, from the classes a class loader loads from the input and the library
+     */
+    private static final class ClassLoaderWriter extends ClassWriter {
+        private final ClassLoader classLoader;
+
+        ClassLoaderWriter(ClassLoader classLoader) {
+            super(ClassWriter.COMPUTE_FRAMES);
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        protected ClassLoader getClassLoader() {
+            return classLoader;
+        }
+
+        String commonSuperClass(String type1, String type2) {
+            return this.getCommonSuperClass(type1, type2);
+        }
+    }
+
+    private static final class ResolverWriter extends CustomClassWriter {
+        ResolverWriter(HierarchyResolver hierarchyResolver) {
+            super(hierarchyResolver, ClassWriter.COMPUTE_FRAMES, "in/Requester");
+        }
+
+        String commonSuperClass(String type1, String type2) {
+            return this.getCommonSuperClass(type1, type2);
+        }
+    }
+
+    private static void define(Map<String, byte[]> classes, int access, String name, String superName, String... interfaces) {
+        final ClassWriter classWriter = new ClassWriter(0);
+        classWriter.visit(V17, access, name, null, superName, interfaces);
+        classWriter.visitEnd();
+        classes.put(name, classWriter.toByteArray());
+    }
+}
@@ -0,0 +1,103 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package codes.rayacode.ByteObf.obfuscator.hierarchy;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.Opcodes;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LibraryCacheTest implements Opcodes {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsWhatWasWritten() throws IOException {
+        final LibraryCache cache = new LibraryCache(this.directory.resolve("cache"), 4);
+        assertNull(cache.read("missing"));
+
+        final List<LibraryClass> classes = classes();
+        cache.write("entry", classes);
+        assertEquals(classes, cache.read("entry"));
+        assertTrue(Files.isRegularFile(this.directory.resolve("cache").resolve("entry.idx")));
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntries() throws IOException {
+        final LibraryCache cache = new LibraryCache(this.directory, 2);
+        for (String hash : List.of("a", "b", "c")) cache.write(hash, classes());
+        setLastModified("a", 1000);
+        setLastModified("b", 2000);
+        setLastModified("c", 3000);
+
+        // Reading an entry makes it the most recently used one
+        assertNotNull(cache.read("a"));
+        assertEquals(1, cache.evict());
+        assertTrue(Files.exists(this.directory.resolve("a.idx")));
+        assertFalse(Files.exists(this.directory.resolve("b.idx")));
+        assertTrue(Files.exists(this.directory.resolve("c.idx")));
+        assertEquals(0, cache.evict());
+    }
+
+    @Test
+    void ignoresBrokenEntries() throws IOException {
+        final LibraryCache cache = new LibraryCache(this.directory, 4);
+        cache.write("truncated", classes());
+        final Path truncated = this.directory.resolve("truncated.idx");
+        final byte[] bytes = Files.readAllBytes(truncated);
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length / 2));
+        assertNull(cache.read("truncated"));
+
+        cache.write("corrupt", classes());
+        final Path corrupt = this.directory.resolve("corrupt.idx");
+        final byte[] corruptBytes = Files.readAllBytes(corrupt);
+        corruptBytes[0] ^= 0x7F;
+        Files.write(corrupt, corruptBytes);
+        assertNull(cache.read("corrupt"));
+
+        Files.writeString(this.directory.resolve("empty.idx"), "");
+        assertNull(cache.read("empty"));
+
+        // A broken entry is simply written again
+        cache.write("truncated", classes());
+        assertEquals(classes(), cache.read("truncated"));
+    }
+
+    private void setLastModified(String hash, long seconds) throws IOException {
+        Files.setLastModifiedTime(this.directory.resolve(hash + ".idx"), FileTime.fromMillis(seconds * 1000));
+    }
+
+    private static List<LibraryClass> classes() {
+        return List.of(
+                new LibraryClass("lib/Base", "java/lang/Object", List.of("java/lang/Runnable"), ACC_PUBLIC,
+                        List.of(new LibraryClass.Member(ACC_PUBLIC, "run", "()V"), new LibraryClass.Member(ACC_PRIVATE | ACC_STATIC, "helper", "(I)I")),
+                        List.of(new LibraryClass.Member(ACC_PROTECTED, "value", "Ljava/lang/String;"))),
+                new LibraryClass("lib/Api", "java/lang/Object", List.of(), ACC_PUBLIC | ACC_INTERFACE | ACC_ABSTRACT, List.of(), List.of()),
+                new LibraryClass("module-info", null, List.of(), ACC_MODULE, List.of(), List.of()));
+    }
+}
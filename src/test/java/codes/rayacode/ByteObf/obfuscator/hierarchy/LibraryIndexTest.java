@@ -0,0 +1,132 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package codes.rayacode.ByteObf.obfuscator.hierarchy;
+
+import codes.rayacode.ByteObf.obfuscator.TestByteObf;
+import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LibraryIndexTest implements Opcodes {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void cachesLibrariesByTheirContentHash() throws IOException, NoSuchAlgorithmException {
+        final Path library = this.createLibrary("library.jar");
+        final Path cacheDirectory = this.directory.resolve("cache");
+
+        final TestByteObf first = new TestByteObf(config(library, cacheDirectory));
+        assertLibraryIndexed(LibraryIndex.load(first));
+        final String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(library)));
+        final Path entry = cacheDirectory.resolve(hash + ".idx");
+        assertTrue(Files.isRegularFile(entry));
+
+        // A copy has the same content, so it shares the entry
+        final TestByteObf second = new TestByteObf(config(Files.copy(library, this.directory.resolve("copy.jar")), cacheDirectory));
+        assertLibraryIndexed(LibraryIndex.load(second));
+        assertTrue(second.getLogs().stream().anyMatch(message -> message.contains("(1 cached)")), second.getLogs().toString());
+        try (var files = Files.list(cacheDirectory)) {
+            assertEquals(List.of(entry), files.toList());
+        }
+        assertEquals(List.of(), first.getErrors());
+        assertEquals(List.of(), second.getErrors());
+    }
+
+    @Test
+    void readsLibrariesAgainWhenTheirEntryIsBroken() throws IOException {
+        final Path library = this.createLibrary("library.jar");
+        final Path cacheDirectory = this.directory.resolve("cache");
+        LibraryIndex.load(new TestByteObf(config(library, cacheDirectory)));
+        try (var files = Files.list(cacheDirectory)) {
+            for (Path entry : files.toList()) Files.write(entry, new byte[] { 1, 2, 3 });
+        }
+
+        final TestByteObf byteObf = new TestByteObf(config(library, cacheDirectory));
+        assertLibraryIndexed(LibraryIndex.load(byteObf));
+        assertTrue(byteObf.getLogs().stream().anyMatch(message -> message.contains("(0 cached)")), byteObf.getLogs().toString());
+        // The entry was written again
+        final TestByteObf cached = new TestByteObf(config(library, cacheDirectory));
+        assertLibraryIndexed(LibraryIndex.load(cached));
+        assertTrue(cached.getLogs().stream().anyMatch(message -> message.contains("(1 cached)")), cached.getLogs().toString());
+    }
+
+    @Test
+    void keepsLibrariesThatCantBeCached() throws IOException {
+        final Path library = this.createLibrary("library.jar");
+        // The cache directory can't be created where a file is in the way
+        final Path cacheDirectory = Files.writeString(this.directory.resolve("cache"), "");
+
+        final TestByteObf byteObf = new TestByteObf(config(library, cacheDirectory));
+        assertLibraryIndexed(LibraryIndex.load(byteObf));
+        assertEquals(1, byteObf.getErrors().size(), byteObf.getErrors().toString());
+        assertTrue(byteObf.getErrors().get(0).startsWith("Cannot cache library index of " + library));
+    }
+
+    private static void assertLibraryIndexed(LibraryIndex index) {
+        final LibraryClass base = index.get("lib/Base");
+        assertNotNull(base);
+        assertEquals("java/lang/Object", base.superName());
+        assertEquals(List.of("java/lang/Runnable"), base.interfaces());
+        assertEquals(List.of(new LibraryClass.Member(ACC_PUBLIC, "run", "()V")), base.methods());
+        assertEquals(1, index.size());
+        // Runtime classes are found without being part of the index
+        assertNotNull(index.get("java/lang/Runnable"));
+        assertNull(index.get("lib/Missing"));
+    }
+
+    private Path createLibrary(String name) throws IOException {
+        final ClassWriter classWriter = new ClassWriter(0);
+        classWriter.visit(V17, ACC_PUBLIC | ACC_ABSTRACT, "lib/Base", null, "java/lang/Object", new String[] { "java/lang/Runnable" });
+        classWriter.visitMethod(ACC_PUBLIC, "run", "()V", null, null).visitEnd();
+        classWriter.visitEnd();
+
+        final Path path = this.directory.resolve(name);
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(path))) {
+            out.putNextEntry(new ZipEntry("lib/Base.class"));
+            out.write(classWriter.toByteArray());
+            out.closeEntry();
+            out.putNextEntry(new ZipEntry("lib/readme.txt"));
+            out.write(1);
+            out.closeEntry();
+        }
+        return path;
+    }
+
+    private static ByteObfConfig config(Path library, Path cacheDirectory) {
+        final var performanceOptions = new ByteObfConfig.PerformanceOptions(ByteObfConfig.PerformanceOptions.InputMode.PARALLEL,
+                1, cacheDirectory.toString(), 4, false, 0L, 0, 0, false);
+        return new ByteObfConfig("input.jar", "output.jar", null, List.of(library.toString()), null, performanceOptions);
+    }
+}
@@ -0,0 +1,168 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package codes.rayacode.ByteObf.obfuscator.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JarWriterTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writtenEntriesReadBack() throws IOException {
+        final byte[] text = "Written by JarWriter. ".repeat(200).getBytes(StandardCharsets.UTF_8);
+        final Path path = this.directory.resolve("output.jar");
+        try (JarWriter writer = new JarWriter(Files.newOutputStream(path))) {
+            writer.putNextEntry(new ZipEntry("a/Text.txt"));
+            writer.write(text);
+            writer.putNextEntry(new ZipEntry("a/été.txt"));
+            try (OutputStream out = writer.getEntryStream()) {
+                out.write('x');
+            }
+            writer.putNextEntry(new ZipEntry("a/Empty.txt"));
+            writer.setComment("Zip comment");
+        }
+
+        try (ZipFile zipFile = new ZipFile(path.toFile())) {
+            assertEquals("Zip comment", zipFile.getComment());
+            assertArrayEquals(text, zipFile.getInputStream(zipFile.getEntry("a/Text.txt")).readAllBytes());
+            assertArrayEquals(new byte[] { 'x' }, zipFile.getInputStream(zipFile.getEntry("a/été.txt")).readAllBytes());
+            assertEquals(0, zipFile.getEntry("a/Empty.txt").getSize());
+        }
+        try (ZipArchive archive = ZipArchive.open(path)) {
+            final List<ZipArchiveEntry> entries = archive.getEntries();
+            assertEquals(List.of("a/Text.txt", "a/été.txt", "a/Empty.txt"), entries.stream().map(ZipArchiveEntry::name).toList());
+            assertEquals(ZipEntry.DEFLATED, entries.get(0).method());
+            assertEquals(crc(text), entries.get(0).crc());
+            assertArrayEquals(text, archive.read(entries.get(0)));
+        }
+    }
+
+    @Test
+    void copiedEntriesKeepTheirData() throws IOException {
+        final byte[] text = "Copied without recompressing. ".repeat(200).getBytes(StandardCharsets.UTF_8);
+        final byte[] binary = new byte[3000];
+        new Random(1).nextBytes(binary);
+        final Path input = this.directory.resolve("input.jar");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(input))) {
+            out.setLevel(9);
+            out.putNextEntry(new ZipEntry("deflated.txt"));
+            out.write(text);
+            out.closeEntry();
+            out.putNextEntry(stored("stored.bin", binary));
+            out.write(binary);
+            out.closeEntry();
+        }
+
+        final Path output = this.directory.resolve("output.jar");
+        try (ZipArchive archive = ZipArchive.open(input); JarWriter writer = new JarWriter(Files.newOutputStream(output))) {
+            for (ZipArchiveEntry entry : archive.getEntries()) writer.copyEntry(archive, entry);
+            writer.putNextEntry(new ZipEntry("new.txt"));
+            writer.write(new byte[] { 1, 2, 3 });
+        }
+
+        try (ZipArchive in = ZipArchive.open(input); ZipArchive out = ZipArchive.open(output)) {
+            assertEquals(3, out.getEntries().size());
+            for (int i = 0; i < 2; i++) {
+                final ZipArchiveEntry original = in.getEntries().get(i), copy = out.getEntries().get(i);
+                assertEquals(original.name(), copy.name());
+                assertEquals(original.method(), copy.method());
+                assertEquals(original.crc(), copy.crc());
+                assertEquals(original.size(), copy.size());
+                assertEquals(original.dosTime(), copy.dosTime());
+                assertEquals(in.readRaw(original), out.readRaw(copy));
+            }
+        }
+        try (ZipFile zipFile = new ZipFile(output.toFile())) {
+            assertArrayEquals(text, zipFile.getInputStream(zipFile.getEntry("deflated.txt")).readAllBytes());
+            assertArrayEquals(binary, zipFile.getInputStream(zipFile.getEntry("stored.bin")).readAllBytes());
+            assertArrayEquals(new byte[] { 1, 2, 3 }, zipFile.getInputStream(zipFile.getEntry("new.txt")).readAllBytes());
+        }
+    }
+
+    @Test
+    void writesZip64WhenEntriesDontFit() throws IOException {
+        // More entries than the end of central directory record can count
+        final int count = 0x10000 + 10;
+        final Path path = this.directory.resolve("zip64.jar");
+        try (JarWriter writer = new JarWriter(Files.newOutputStream(path))) {
+            for (int i = 0; i < count; i++) {
+                writer.putNextEntry(new ZipEntry("e/" + i));
+                writer.write(Integer.toString(i).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        try (ZipFile zipFile = new ZipFile(path.toFile())) {
+            assertEquals(count, zipFile.size());
+            assertEquals(Integer.toString(count - 1), new String(zipFile.getInputStream(zipFile.getEntry("e/" + (count - 1))).readAllBytes(), StandardCharsets.UTF_8));
+        }
+        try (ZipArchive archive = ZipArchive.open(path)) {
+            final List<ZipArchiveEntry> entries = archive.getEntries();
+            assertEquals(count, entries.size());
+            for (int i = 0; i < count; i += 997)
+                assertEquals(Integer.toString(i), new String(archive.read(entries.get(i)), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void rejectsDuplicateEntries() throws IOException {
+        try (JarWriter writer = new JarWriter(OutputStream.nullOutputStream())) {
+            writer.putNextEntry(new ZipEntry("a.txt"));
+            assertThrows(ZipException.class, () -> writer.putNextEntry(new ZipEntry("a.txt")));
+        }
+    }
+
+    @Test
+    void rejectsDataWithoutEntry() throws IOException {
+        try (JarWriter writer = new JarWriter(OutputStream.nullOutputStream())) {
+            assertThrows(ZipException.class, () -> writer.write(new byte[1]));
+        }
+    }
+
+    private static ZipEntry stored(String name, byte[] bytes) {
+        final ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(bytes.length);
+        entry.setCompressedSize(bytes.length);
+        entry.setCrc(crc(bytes));
+        return entry;
+    }
+
+    private static long crc(byte[] bytes) {
+        final CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,54 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package codes.rayacode.ByteObf.obfuscator.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedZipArchiveTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsTheSameEntriesAsTheChannelReader() throws IOException {
+        final Path path = this.directory.resolve("input.jar");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(path))) {
+            for (int i = 0; i < 10; i++) {
+                out.putNextEntry(new ZipEntry("entry" + i));
+                out.write(("content " + i).getBytes(StandardCharsets.UTF_8));
+                out.closeEntry();
+            }
+        }
+
+        try (ZipArchive archive = ZipArchive.open(path); ZipArchive mapped = MappedZipArchive.open(path)) {
+            assertEquals(archive.getEntries(), mapped.getEntries());
+            for (ZipArchiveEntry entry : mapped.getEntries())
+                assertArrayEquals(archive.read(entry), mapped.read(entry));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package codes.rayacode.ByteObf.obfuscator.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZipArchiveTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsStoredAndDeflatedEntries() throws IOException {
+        final byte[] text = "Hello from a deflated entry. ".repeat(100).getBytes(StandardCharsets.UTF_8);
+        final byte[] binary = new byte[5000];
+        new Random(1).nextBytes(binary);
+        final Path path = this.directory.resolve("input.jar");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(path))) {
+            out.putNextEntry(new ZipEntry("META-INF/"));
+            out.closeEntry();
+            out.putNextEntry(new ZipEntry("a/Text.txt"));
+            out.write(text);
+            out.closeEntry();
+            out.putNextEntry(stored("a/B.class", binary));
+            out.write(binary);
+            out.closeEntry();
+            out.setComment("comment");
+        }
+
+        try (ZipArchive archive = ZipArchive.open(path)) {
+            final List<ZipArchiveEntry> entries = archive.getEntries();
+            assertEquals(List.of("META-INF/", "a/Text.txt", "a/B.class"), entries.stream().map(ZipArchiveEntry::name).toList());
+            assertTrue(entries.get(0).isDirectory());
+            assertEquals(ZipEntry.DEFLATED, entries.get(1).method());
+            assertTrue(entries.get(1).compressedSize() < text.length);
+            assertArrayEquals(text, archive.read(entries.get(1)));
+            assertEquals(ZipEntry.STORED, entries.get(2).method());
+            assertTrue(entries.get(2).isClass());
+            assertEquals(crc(binary), entries.get(2).crc());
+            assertArrayEquals(binary, archive.read(entries.get(2)));
+        }
+    }
+
+    @Test
+    void readsZip64Archives() throws IOException {
+        // More entries than the end of central directory record can count
+        final int count = 0x10000 + 10;
+        final Path path = this.directory.resolve("zip64.jar");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(path))) {
+            for (int i = 0; i < count; i++) {
+                out.putNextEntry(new ZipEntry("e/" + i));
+                out.write(Integer.toString(i).getBytes(StandardCharsets.UTF_8));
+                out.closeEntry();
+            }
+        }
+
+        try (ZipArchive archive = ZipArchive.open(path)) {
+            final List<ZipArchiveEntry> entries = archive.getEntries();
+            assertEquals(count, entries.size());
+            for (int i = 0; i < count; i += 997) {
+                assertEquals("e/" + i, entries.get(i).name());
+                assertEquals(Integer.toString(i), new String(archive.read(entries.get(i)), StandardCharsets.UTF_8));
+            }
+            assertEquals(Integer.toString(count - 1), new String(archive.read(entries.get(count - 1)), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void keepsDuplicateEntries() throws IOException {
+        final Path path = this.directory.resolve("duplicates.jar");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(path))) {
+            out.putNextEntry(new ZipEntry("first.txt"));
+            out.write(1);
+            out.closeEntry();
+            out.putNextEntry(new ZipEntry("other.txt"));
+            out.write(2);
+            out.closeEntry();
+        }
+        // ZipOutputStream refuses duplicate names, so the second name is overwritten in place
+        final String bytes = Files.readString(path, StandardCharsets.ISO_8859_1).replace("other.txt", "first.txt");
+        Files.writeString(path, bytes, StandardCharsets.ISO_8859_1);
+
+        try (ZipArchive archive = ZipArchive.open(path)) {
+            final List<ZipArchiveEntry> entries = archive.getEntries();
+            assertEquals(List.of("first.txt", "first.txt"), entries.stream().map(ZipArchiveEntry::name).toList());
+            assertArrayEquals(new byte[] { 1 }, archive.read(entries.get(0)));
+            assertArrayEquals(new byte[] { 2 }, archive.read(entries.get(1)));
+        }
+    }
+
+    @Test
+    void rejectsFilesWithoutCentralDirectory() throws IOException {
+        final Path path = this.directory.resolve("broken.jar");
+        Files.writeString(path, "not a zip file");
+        assertThrows(ZipException.class, () -> ZipArchive.open(path).close());
+    }
+
+    @Test
+    void rejectsBrokenCentralDirectoryHeaders() throws IOException {
+        final Path path = this.directory.resolve("corrupt.jar");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(path))) {
+            for (String name : List.of("first.txt", "second.txt")) {
+                out.putNextEntry(new ZipEntry(name));
+                out.write(1);
+                out.closeEntry();
+            }
+        }
+        // Breaks the signature of the second central directory header, the first one still reads fine
+        final byte[] bytes = Files.readAllBytes(path);
+        final int header = new String(bytes, StandardCharsets.ISO_8859_1).lastIndexOf("PK\u0001\u0002");
+        bytes[header + 3] = 0;
+        Files.write(path, bytes);
+        assertThrows(ZipException.class, () -> ZipArchive.open(path).close());
+    }
+
+    static ZipEntry stored(String name, byte[] bytes) {
+        final ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(bytes.length);
+        entry.setCompressedSize(bytes.length);
+        entry.setCrc(crc(bytes));
+        return entry;
+    }
+
+    static long crc(byte[] bytes) {
+        final CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+}
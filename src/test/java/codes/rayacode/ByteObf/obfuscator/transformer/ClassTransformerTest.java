@@ -0,0 +1,176 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package codes.rayacode.ByteObf.obfuscator.transformer;
+
+import codes.rayacode.ByteObf.obfuscator.TestByteObf;
+import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfCategory;
+import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfConfig;
+import codes.rayacode.ByteObf.obfuscator.utils.model.CodeSizes;
+import codes.rayacode.ByteObf.obfuscator.utils.model.MethodAnalyses;
+import codes.rayacode.ByteObf.obfuscator.utils.model.MethodAnalysis;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.JumpInsnNode;
+import org.objectweb.asm.tree.LabelNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.TypeInsnNode;
+import org.objectweb.asm.tree.VarInsnNode;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClassTransformerTest implements Opcodes {
+
+    private static final String OWNER = "a/A";
+
+    @Test
+    void codeIsOnlyInjectedWhereTheStackHasRoom() {
+        final AbstractInsnNode target = new InsnNode(ICONST_1);
+        final MethodNode methodNode = createMethod(ACC_STATIC, "m", "()V",
+                new InsnNode(ICONST_0), new InsnNode(LCONST_0), target, new InsnNode(POP), new InsnNode(POP2), new InsnNode(POP), new InsnNode(RETURN));
+        final ClassNode classNode = createClass(V17, methodNode);
+        final MethodAnalysis analysis = MethodAnalysis.analyze(OWNER, methodNode);
+
+        // An int and a long are on the stack, three slots
+        assertTrue(ClassTransformer.isInjectable(classNode, analysis, target, 65535 - 3));
+        assertFalse(ClassTransformer.isInjectable(classNode, analysis, target, 65535 - 2));
+    }
+
+    @Test
+    void objectsUnderConstructionBlockInjectionForTheInferringVerifier() {
+        final AbstractInsnNode create = new TypeInsnNode(NEW, "java/lang/StringBuilder");
+        final AbstractInsnNode argument = new MethodInsnNode(INVOKESTATIC, OWNER, "get", "()Ljava/lang/String;");
+        final AbstractInsnNode construct = new MethodInsnNode(INVOKESPECIAL, "java/lang/StringBuilder", "<init>", "(Ljava/lang/String;)V");
+        final AbstractInsnNode use = new MethodInsnNode(INVOKEVIRTUAL, "java/lang/StringBuilder", "toString", "()Ljava/lang/String;");
+        final MethodNode methodNode = createMethod(ACC_STATIC, "m", "()V",
+                create, new InsnNode(DUP), argument, construct, use, new InsnNode(POP), new InsnNode(RETURN));
+
+        final ClassNode inferred = createClass(V1_5, methodNode);
+        final MethodAnalysis analysis = MethodAnalysis.analyze(OWNER, methodNode);
+        assertTrue(ClassTransformer.isInjectable(inferred, analysis, create, 4));
+        assertFalse(ClassTransformer.isInjectable(inferred, analysis, argument, 4));
+        assertFalse(ClassTransformer.isInjectable(inferred, analysis, construct, 4));
+        assertTrue(ClassTransformer.isInjectable(inferred, analysis, use, 4));
+
+        // The type checker takes backward jumps with them
+        final ClassNode checked = createClass(V1_8, methodNode);
+        for (AbstractInsnNode insn : List.of(create, argument, construct, use))
+            assertTrue(ClassTransformer.isInjectable(checked, analysis, insn, 4));
+    }
+
+    @Test
+    void constructorsAreOnlyInjectedAfterTheSuperCall() {
+        final AbstractInsnNode before = new MethodInsnNode(INVOKESTATIC, OWNER, "get", "()Ljava/lang/String;");
+        final AbstractInsnNode after = new MethodInsnNode(INVOKESTATIC, OWNER, "get", "()Ljava/lang/String;");
+        final MethodNode methodNode = createMethod(0, "<init>", "()V",
+                before, new InsnNode(POP),
+                new VarInsnNode(ALOAD, 0), new MethodInsnNode(INVOKESPECIAL, "java/lang/Object", "<init>", "()V"),
+                after, new InsnNode(POP), new InsnNode(RETURN));
+        final ClassNode classNode = createClass(V1_5, methodNode);
+        final MethodAnalysis analysis = MethodAnalysis.analyze(OWNER, methodNode);
+
+        assertFalse(ClassTransformer.isInjectable(classNode, analysis, before, 4));
+        assertTrue(ClassTransformer.isInjectable(classNode, analysis, after, 4));
+    }
+
+    @Test
+    void subroutinesBlockInjection() {
+        final LabelNode subroutine = new LabelNode();
+        final AbstractInsnNode inside = new MethodInsnNode(INVOKESTATIC, OWNER, "get", "()Ljava/lang/String;");
+        final AbstractInsnNode outside = new InsnNode(NOP);
+        final MethodNode methodNode = createMethod(ACC_STATIC, "m", "()V",
+                outside, new JumpInsnNode(JSR, subroutine), new InsnNode(RETURN),
+                subroutine, new VarInsnNode(ASTORE, 0), inside, new InsnNode(POP), new VarInsnNode(RET, 0));
+        final ClassNode classNode = createClass(V1_5, methodNode);
+        final MethodAnalysis analysis = MethodAnalysis.analyze(OWNER, methodNode);
+
+        assertTrue(ClassTransformer.isInjectable(classNode, analysis, outside, 4));
+        assertFalse(ClassTransformer.isInjectable(classNode, analysis, inside, 4));
+    }
+
+    @Test
+    void unreachableCodeIsNotInjected() {
+        final AbstractInsnNode unreachable = new InsnNode(NOP);
+        final MethodNode methodNode = createMethod(ACC_STATIC, "m", "()V", new InsnNode(RETURN), unreachable, new InsnNode(RETURN));
+        final ClassNode classNode = createClass(V17, methodNode);
+
+        assertFalse(ClassTransformer.isInjectable(classNode, MethodAnalysis.analyze(OWNER, methodNode), unreachable, 0));
+    }
+
+    @Test
+    void analysesFollowTheChangesOfEarlierTransformers() {
+        final MethodNode methodNode = createMethod(ACC_STATIC, "m", "()V", new InsnNode(ICONST_0), new InsnNode(POP), new InsnNode(RETURN));
+        final ClassNode classNode = createClass(V17, methodNode);
+        final MethodAnalyses analyses = new MethodAnalyses();
+        final ClassTransformer classTransformer = new ClassTransformer(new TestByteObf(new ByteObfConfig("input.jar", "output.jar", "", List.of(), null, null)), "Test", ByteObfCategory.ADVANCED) {
+            @Override
+            public ByteObfConfig.EnableType getEnableType() {
+                return null;
+            }
+        };
+
+        classTransformer.beginClass(OWNER, new CodeSizes(), analyses, null);
+        try {
+            final MethodAnalysis first = classTransformer.analyze(classNode, methodNode);
+            assertSame(first, classTransformer.analyze(classNode, methodNode));
+
+            // Changes made through the transformer are reported
+            final InsnList insnList = new InsnList();
+            insnList.add(new InsnNode(ICONST_1));
+            insnList.add(new InsnNode(POP));
+            final AbstractInsnNode reported = insnList.getFirst();
+            classTransformer.insert(methodNode, insnList);
+            final MethodAnalysis second = classTransformer.analyze(classNode, methodNode);
+            assertFalse(first == second);
+            assertNull(first.getFrame(reported));
+            assertNotNull(second.getFrame(reported));
+
+            // Transformers that change the code directly don't report it, the changed code is analyzed again
+            final AbstractInsnNode unreported = new InsnNode(NOP);
+            methodNode.instructions.insert(unreported);
+            final MethodAnalysis third = classTransformer.analyze(classNode, methodNode);
+            assertFalse(second == third);
+            assertNotNull(third.getFrame(unreported));
+            assertSame(third, analyses.get(OWNER, methodNode));
+        } finally {
+            classTransformer.endClass();
+        }
+    }
+
+    private static ClassNode createClass(int version, MethodNode methodNode) {
+        final ClassNode classNode = new ClassNode();
+        classNode.visit(version, ACC_PUBLIC, OWNER, null, "java/lang/Object", null);
+        classNode.methods.add(methodNode);
+        return classNode;
+    }
+
+    private static MethodNode createMethod(int access, String name, String desc, AbstractInsnNode... insns) {
+        final MethodNode methodNode = new MethodNode(access, name, desc, null, null);
+        for (AbstractInsnNode insn : insns) methodNode.instructions.add(insn);
+        methodNode.maxStack = 4;
+        methodNode.maxLocals = 1;
+        return methodNode;
+    }
+}
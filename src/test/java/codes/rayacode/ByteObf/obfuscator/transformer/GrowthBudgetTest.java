@@ -0,0 +1,124 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package codes.rayacode.ByteObf.obfuscator.transformer;
+
+import codes.rayacode.ByteObf.obfuscator.utils.model.GrowthBudget;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GrowthBudgetTest {
+
+    @Test
+    void allowancesAddUpToTheJarLimit() {
+        final long[] sizes = { 1000, 2000, 4000 }, demands = { 50, 1000, 1000 };
+        final long[] allowances = GrowthBudget.allocate(sizes, demands, 50, 10);
+
+        assertEquals(700, Arrays.stream(allowances).sum());
+        // The class that wants little keeps all of it, the others share the rest by their size
+        assertEquals(50, allowances[0]);
+        assertEquals(217, allowances[1]);
+        assertEquals(433, allowances[2]);
+    }
+
+    @Test
+    void allowancesKeepToTheClassLimitAndTheDemand() {
+        final long[] sizes = { 1000, 2000, 4000 }, demands = { 50, 1000, 1000 };
+
+        assertArrayEquals(new long[] { 50, 1000, 1000 }, GrowthBudget.allocate(sizes, demands, 0, 0));
+        assertArrayEquals(new long[] { 50, 1000, 1000 }, GrowthBudget.allocate(sizes, demands, 0, 50));
+        assertArrayEquals(new long[] { 50, 200, 400 }, GrowthBudget.allocate(sizes, demands, 10, 0));
+        assertArrayEquals(new long[] { 50, 200, 400 }, GrowthBudget.allocate(sizes, demands, 10, 50));
+    }
+
+    @Test
+    void transformersShareTheClassAllowanceByTheirDemand() {
+        final GrowthBudget budget = new GrowthBudget(300, new long[] { 100, 200 });
+        final Random random = new FixedRandom(0.99);
+
+        // The first transformer gets a third and can't inject more than that into one method
+        budget.beginTransformer(0);
+        budget.beginMethod(200, 200, Integer.MAX_VALUE);
+        assertFalse(budget.tryInject(random, 200));
+        budget.endMethod();
+
+        // What it left is handed to the next one
+        budget.beginTransformer(1);
+        budget.beginMethod(300, 300, Integer.MAX_VALUE);
+        assertTrue(budget.tryInject(random, 300));
+        budget.endMethod();
+    }
+
+    @Test
+    void refundedBytesCanBeSpentAgain() {
+        final GrowthBudget budget = new GrowthBudget(100, new long[] { 100 });
+        final Random random = new FixedRandom(0.99);
+        budget.beginTransformer(0);
+
+        // Spends the whole share, then the method is reverted like TransformManager does
+        budget.beginMethod(50, 100, Integer.MAX_VALUE);
+        final long spent = budget.getSpent();
+        assertTrue(budget.tryInject(random, 50));
+        budget.spend(50, 100);
+        budget.refund(budget.getSpent() - spent);
+        budget.endMethod();
+        assertEquals(0, budget.getSpent());
+
+        // The next method gets all of the share back
+        budget.beginMethod(50, 50, Integer.MAX_VALUE);
+        assertTrue(budget.tryInject(random, 50));
+        budget.spend(50, 100);
+        budget.endMethod();
+        assertEquals(100, budget.getSpent());
+
+        // Without the refund there's nothing left
+        budget.beginMethod(50, 50, Integer.MAX_VALUE);
+        assertFalse(budget.tryInject(random, 50));
+        budget.endMethod();
+    }
+
+    @Test
+    void methodsStayBelowTheSizeLimit() {
+        final GrowthBudget budget = new GrowthBudget(1000, new long[] { 100 });
+        budget.beginTransformer(0);
+        budget.beginMethod(100, 100, 99);
+        assertFalse(budget.tryInject(new FixedRandom(0), 100));
+        budget.endMethod();
+    }
+
+    /**
+     * Random that always draws the same double, so decisions that depend on the allowance are predictable
+     */
+    private static final class FixedRandom extends Random {
+
+        private final double value;
+
+        private FixedRandom(double value) {
+            this.value = value;
+        }
+
+        @Override
+        public double nextDouble() {
+            return this.value;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package codes.rayacode.ByteObf.obfuscator.transformer;
+
+import codes.rayacode.ByteObf.obfuscator.TestByteObf;
+import codes.rayacode.ByteObf.obfuscator.transformer.impl.ConstantTransformer;
+import codes.rayacode.ByteObf.obfuscator.transformer.impl.HeavyControlFlowTransformer;
+import codes.rayacode.ByteObf.obfuscator.transformer.impl.LightControlFlowTransformer;
+import codes.rayacode.ByteObf.obfuscator.utils.ASMUtils;
+import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfConfig;
+import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfConfig.ByteObfOptions;
+import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfConfig.ByteObfOptions.ConstantObfuscationOption;
+import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfConfig.ByteObfOptions.ControlFlowObfuscationOption;
+import codes.rayacode.ByteObf.obfuscator.utils.model.ClassWrapper;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.LineNumberNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransformManagerTest implements Opcodes {
+
+    @Test
+    void wildcardMemberExclusionsKeepClassesOnTheTree() {
+        final TestByteObf byteObf = new TestByteObf(config("com.*.Foo.run()V", ControlFlowObfuscationOption.OFF, ConstantObfuscationOption.OFF, 0));
+        final ClassWrapper foo = new ClassWrapper(byteObf.getSymbols(), createClass("com/x/Foo"));
+        final ClassWrapper bar = new ClassWrapper(byteObf.getSymbols(), createClass("com/x/Bar"));
+        byteObf.getClassWrappers().addAll(List.of(foo, bar));
+
+        new TransformManager(byteObf).transformAll();
+
+        // Every transformer streams, only the class with an excluded member has to be parsed, and with its debug attributes
+        assertFalse(bar.isMaterialized());
+        assertTrue(foo.isMaterialized());
+        assertEquals(0, foo.getParseFlags() & ClassReader.SKIP_DEBUG);
+        assertTrue(hasLineNumbers(getMethod(foo.getClassNode(), "run")));
+        assertFalse(hasLineNumbers(getMethod(foo.getClassNode(), "other")));
+
+        final ClassNode streamed = new ClassNode();
+        new ClassReader(bar.getBytes()).accept(streamed, 0);
+        assertFalse(hasLineNumbers(getMethod(streamed, "run")));
+        assertFalse(hasLineNumbers(getMethod(streamed, "other")));
+    }
+
+    @Test
+    void injectionPointsArePickedAtTheOldRatesWithoutABudget() {
+        final TestByteObf byteObf = new TestByteObf(config("", ControlFlowObfuscationOption.OFF, ConstantObfuscationOption.OFF, 0));
+        final Map<ClassTransformer, Double> rates = Map.of(
+                new ConstantTransformer(byteObf), 0.30,
+                new HeavyControlFlowTransformer(byteObf), 0.20,
+                new LightControlFlowTransformer(byteObf), 1D);
+
+        rates.forEach((classTransformer, rate) -> {
+            classTransformer.beginClass("a/A", null, null, null);
+            int picked = 0;
+            try {
+                for (int i = 0; i < 10000; i++)
+                    if (classTransformer.shouldInject(1)) picked++;
+            } finally {
+                classTransformer.endClass();
+            }
+            assertEquals(rate, picked / 10000D, 0.02);
+        });
+    }
+
+    @Test
+    void largeMethodsAndComplexClassesAreSkippedWithoutABudget() {
+        final List<ByteObfConfig> configs = List.of(
+                config("", ControlFlowObfuscationOption.LIGHT, ConstantObfuscationOption.OFF, 0),
+                config("", ControlFlowObfuscationOption.HEAVY, ConstantObfuscationOption.OFF, 0),
+                config("", ControlFlowObfuscationOption.OFF, ConstantObfuscationOption.LIGHT, 0));
+        for (ByteObfConfig config : configs) {
+            final TestByteObf byteObf = new TestByteObf(config);
+            final ClassWrapper large = new ClassWrapper(byteObf.getSymbols(), createClass("a/Large", 1, 6000));
+            final ClassWrapper complex = new ClassWrapper(byteObf.getSymbols(), createClass("a/Complex", 401, 1));
+            byteObf.getClassWrappers().addAll(List.of(large, complex));
+
+            new TransformManager(byteObf).transformAll();
+
+            // Methods over 30000 bytes and classes with over 400 methods were left alone before growth was budgeted
+            assertEquals(12001, getMethod(large.getClassNode(), "m0").instructions.size());
+            assertTrue(byteObf.getLogs().stream().anyMatch(log -> log.contains("already large method: a/Large.m0")));
+            assertTrue(complex.getClassNode().methods.stream().allMatch(methodNode -> methodNode.instructions.size() == (methodNode.name.equals("use") ? 1 : 3)));
+            assertTrue(byteObf.getLogs().stream().anyMatch(log -> log.endsWith("overly complex class: a/Complex")));
+        }
+    }
+
+    @Test
+    void largeMethodsAreTransformedWithABudget() {
+        final TestByteObf byteObf = new TestByteObf(config("", ControlFlowObfuscationOption.OFF, ConstantObfuscationOption.LIGHT, 100));
+        final ClassWrapper large = new ClassWrapper(byteObf.getSymbols(), createClass("a/Large", 1, 6000));
+        byteObf.getClassWrappers().add(large);
+
+        new TransformManager(byteObf).transformAll();
+
+        assertNotEquals(12001, getMethod(large.getClassNode(), "m0").instructions.size());
+        assertTrue(ASMUtils.getCodeSize(getMethod(large.getClassNode(), "m0")) <= ASMUtils.MAX_CODE_SIZE);
+    }
+
+    @Test
+    void controlFlowLeavesObjectsUnderConstructionAloneForTheInferringVerifier() {
+        for (int version : new int[] { V1_5, V1_8 }) {
+            final TestByteObf byteObf = new TestByteObf(config("", ControlFlowObfuscationOption.LIGHT, ConstantObfuscationOption.OFF, 0));
+            final ClassWrapper classWrapper = new ClassWrapper(byteObf.getSymbols(), createConstructingClass(version));
+            byteObf.getClassWrappers().add(classWrapper);
+
+            new TransformManager(byteObf).transformAll();
+
+            final AbstractInsnNode argument = Arrays.stream(getMethod(classWrapper.getClassNode(), "m").instructions.toArray())
+                    .filter(insn -> insn instanceof MethodInsnNode methodInsn && methodInsn.name.equals("get"))
+                    .findFirst().orElseThrow();
+            final AbstractInsnNode toString = Arrays.stream(getMethod(classWrapper.getClassNode(), "m").instructions.toArray())
+                    .filter(insn -> insn instanceof MethodInsnNode methodInsn && methodInsn.name.equals("toString"))
+                    .findFirst().orElseThrow();
+            // Every point that may take it gets flow, the call between NEW and <init> only if the verifier checks stack maps
+            final boolean untouched = argument.getPrevious().getOpcode() == DUP && argument.getNext().getOpcode() == INVOKESPECIAL;
+            assertEquals(version == V1_5, untouched);
+            assertNotEquals(INVOKESPECIAL, toString.getPrevious().getOpcode());
+        }
+    }
+
+    private static ByteObfConfig config(String exclude, ControlFlowObfuscationOption controlFlow, ConstantObfuscationOption constants, int classGrowthBudget) {
+        final var watermarkOptions = new ByteObfOptions.WatermarkOptions(false, false, false, false, "", "", "", "");
+        final var options = new ByteObfOptions(ByteObfOptions.RenameOption.OFF, ByteObfOptions.LineNumberOption.DELETE,
+                ByteObfOptions.LocalVariableOption.DELETE, true, false, false, controlFlow, false, constants, watermarkOptions);
+        final var performanceOptions = new ByteObfConfig.PerformanceOptions(ByteObfConfig.PerformanceOptions.InputMode.PARALLEL,
+                2, null, 0, true, 1L, classGrowthBudget, 0, false);
+        return new ByteObfConfig("input.jar", "output.jar", exclude, List.of(), options, performanceOptions);
+    }
+
+    private static byte[] createClass(String name) {
+        final ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        classWriter.visit(V17, ACC_PUBLIC, name, null, "java/lang/Object", null);
+        classWriter.visitSource("Source.java", null);
+        for (String method : new String[] { "run", "other" }) {
+            final MethodVisitor methodVisitor = classWriter.visitMethod(ACC_PUBLIC | ACC_STATIC, method, "()V", null, null);
+            methodVisitor.visitCode();
+            final Label label = new Label();
+            methodVisitor.visitLabel(label);
+            methodVisitor.visitLineNumber(10, label);
+            methodVisitor.visitInsn(RETURN);
+            methodVisitor.visitMaxs(0, 0);
+            methodVisitor.visitEnd();
+        }
+        classWriter.visitEnd();
+        return classWriter.toByteArray();
+    }
+
+    /**
+     * @return class with static methods that each pass the same number to another method the given number of times
+     */
+    private static byte[] createClass(String name, int methods, int calls) {
+        final ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        classWriter.visit(V17, ACC_PUBLIC, name, null, "java/lang/Object", null);
+        for (int i = 0; i < methods; i++) {
+            final MethodVisitor methodVisitor = classWriter.visitMethod(ACC_PUBLIC | ACC_STATIC, "m" + i, "()V", null, null);
+            methodVisitor.visitCode();
+            for (int j = 0; j < calls; j++) {
+                methodVisitor.visitIntInsn(SIPUSH, 1000);
+                methodVisitor.visitMethodInsn(INVOKESTATIC, name, "use", "(I)V", false);
+            }
+            methodVisitor.visitInsn(RETURN);
+            methodVisitor.visitMaxs(0, 0);
+            methodVisitor.visitEnd();
+        }
+        final MethodVisitor methodVisitor = classWriter.visitMethod(ACC_PUBLIC | ACC_STATIC, "use", "(I)V", null, null);
+        methodVisitor.visitCode();
+        methodVisitor.visitInsn(RETURN);
+        methodVisitor.visitMaxs(0, 0);
+        methodVisitor.visitEnd();
+        classWriter.visitEnd();
+        return classWriter.toByteArray();
+    }
+
+    /**
+     * @return class whose method m passes the result of a call to a constructor
+     */
+    private static byte[] createConstructingClass(int version) {
+        final ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        classWriter.visit(version, ACC_PUBLIC, "a/Construct", null, "java/lang/Object", null);
+        MethodVisitor methodVisitor = classWriter.visitMethod(ACC_PUBLIC | ACC_STATIC, "m", "()V", null, null);
+        methodVisitor.visitCode();
+        methodVisitor.visitTypeInsn(NEW, "java/lang/StringBuilder");
+        methodVisitor.visitInsn(DUP);
+        methodVisitor.visitMethodInsn(INVOKESTATIC, "a/Construct", "get", "()Ljava/lang/String;", false);
+        methodVisitor.visitMethodInsn(INVOKESPECIAL, "java/lang/StringBuilder", "<init>", "(Ljava/lang/String;)V", false);
+        methodVisitor.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "toString", "()Ljava/lang/String;", false);
+        methodVisitor.visitInsn(POP);
+        methodVisitor.visitInsn(RETURN);
+        methodVisitor.visitMaxs(0, 0);
+        methodVisitor.visitEnd();
+        methodVisitor = classWriter.visitMethod(ACC_PUBLIC | ACC_STATIC, "get", "()Ljava/lang/String;", null, null);
+        methodVisitor.visitCode();
+        methodVisitor.visitLdcInsn("");
+        methodVisitor.visitInsn(ARETURN);
+        methodVisitor.visitMaxs(0, 0);
+        methodVisitor.visitEnd();
+        classWriter.visitEnd();
+        return classWriter.toByteArray();
+    }
+
+    private static MethodNode getMethod(ClassNode classNode, String name) {
+        return classNode.methods.stream().filter(methodNode -> methodNode.name.equals(name)).findFirst().orElseThrow();
+    }
+
+    private static boolean hasLineNumbers(MethodNode methodNode) {
+        return Arrays.stream(methodNode.instructions.toArray()).anyMatch(insn -> insn instanceof LineNumberNode);
+    }
+}
@@ -0,0 +1,73 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package codes.rayacode.ByteObf.obfuscator.transformer;
+
+import codes.rayacode.ByteObf.obfuscator.transformer.impl.ConstantTransformer;
+import codes.rayacode.ByteObf.obfuscator.transformer.impl.LineNumberTransformer;
+import codes.rayacode.ByteObf.obfuscator.transformer.impl.LocalVariableTransformer;
+import codes.rayacode.ByteObf.obfuscator.transformer.impl.ShuffleTransformer;
+import codes.rayacode.ByteObf.obfuscator.transformer.impl.SourceFileTransformer;
+import codes.rayacode.ByteObf.obfuscator.transformer.impl.renamer.ClassRenamerTransformer;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransformScheduleTest {
+
+    private final ClassTransformer renamer = new ClassRenamerTransformer(null);
+    private final ClassTransformer constants = new ConstantTransformer(null);
+    private final ClassTransformer lineNumbers = new LineNumberTransformer(null);
+    private final ClassTransformer localVariables = new LocalVariableTransformer(null);
+    private final ClassTransformer sourceFile = new SourceFileTransformer(null);
+    private final ClassTransformer shuffle = new ShuffleTransformer(null);
+
+    @Test
+    void conflictsFromDeclaredParts() {
+        // Deleting line numbers removes nodes from the code
+        assertTrue(TransformSchedule.conflicts(this.constants, this.lineNumbers));
+        assertTrue(TransformSchedule.conflicts(this.localVariables, this.shuffle));
+        assertFalse(TransformSchedule.conflicts(this.sourceFile, this.localVariables));
+        assertFalse(TransformSchedule.conflicts(this.constants, this.sourceFile));
+        // Transformers that don't declare their parts conflict with everything
+        assertTrue(TransformSchedule.conflicts(this.renamer, this.sourceFile));
+    }
+
+    @Test
+    void dependenciesFollowTheConfiguredOrder() {
+        final TransformSchedule schedule = new TransformSchedule(List.of(this.renamer, this.constants, this.lineNumbers, this.sourceFile));
+        assertEquals(Set.of(), schedule.getDependencies(this.renamer));
+        assertEquals(Set.of(this.renamer, this.constants), schedule.getDependencies(this.lineNumbers));
+        assertEquals(Set.of(this.renamer), schedule.getDependencies(this.sourceFile));
+        assertEquals(List.of(this.renamer, this.constants, this.lineNumbers, this.sourceFile), schedule.getOrder());
+    }
+
+    @Test
+    void validatesTheRunOrder() {
+        final TransformSchedule schedule = new TransformSchedule(List.of(this.constants, this.lineNumbers, this.sourceFile, this.renamer));
+        // Independent transformers can be run in any order
+        schedule.validate(List.of(this.sourceFile, this.constants, this.lineNumbers, this.renamer));
+        schedule.validate(List.of(this.lineNumbers, this.sourceFile));
+
+        assertThrows(IllegalStateException.class, () -> schedule.validate(List.of(this.lineNumbers, this.constants)));
+        // Renamers run first, so they can't be configured after transformers they conflict with
+        assertThrows(IllegalStateException.class, () -> schedule.validate(List.of(this.renamer, this.constants, this.lineNumbers, this.sourceFile)));
+    }
+}
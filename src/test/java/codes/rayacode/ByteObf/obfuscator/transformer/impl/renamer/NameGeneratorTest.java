@@ -0,0 +1,86 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package codes.rayacode.ByteObf.obfuscator.transformer.impl.renamer;
+
+import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfConfig.ByteObfOptions.RenameOption;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameGeneratorTest {
+
+    @Test
+    void alphabetNames() {
+        assertEquals("A", NameGenerator.getName(RenameOption.ALPHABET, 0));
+        assertEquals("Z", NameGenerator.getName(RenameOption.ALPHABET, 25));
+        assertEquals("a", NameGenerator.getName(RenameOption.ALPHABET, 26));
+        assertEquals("z", NameGenerator.getName(RenameOption.ALPHABET, 51));
+        assertEquals("AA", NameGenerator.getName(RenameOption.ALPHABET, 52));
+        assertEquals("AB", NameGenerator.getName(RenameOption.ALPHABET, 53));
+        assertEquals("zz", NameGenerator.getName(RenameOption.ALPHABET, 52 + 52 * 52 - 1));
+        assertEquals("AAA", NameGenerator.getName(RenameOption.ALPHABET, 52 + 52 * 52));
+    }
+
+    @Test
+    void binaryNames() {
+        assertEquals("I", NameGenerator.getName(RenameOption.IlIlIlIlIl, 0));
+        assertEquals("l", NameGenerator.getName(RenameOption.IlIlIlIlIl, 1));
+        assertEquals("II", NameGenerator.getName(RenameOption.IlIlIlIlIl, 2));
+        assertEquals("ll", NameGenerator.getName(RenameOption.IlIlIlIlIl, 5));
+        assertEquals("III", NameGenerator.getName(RenameOption.IlIlIlIlIl, 6));
+    }
+
+    @Test
+    void namesAreUniqueAndShortestFirst() {
+        for (RenameOption option : new RenameOption[] { RenameOption.ALPHABET, RenameOption.INVISIBLE, RenameOption.IlIlIlIlIl }) {
+            final Set<String> names = new HashSet<>();
+            int length = 0;
+            for (long index = 0; index < 200_000; index++) {
+                final String name = NameGenerator.getName(option, index);
+                assertTrue(names.add(name), option + " repeats " + name);
+                assertTrue(name.length() >= length, option + " gets shorter at " + index);
+                length = name.length();
+            }
+        }
+    }
+
+    @Test
+    void invisibleNamesAreValidIdentifiers() {
+        for (long index = 0; index < 10_000; index++) {
+            final String name = NameGenerator.getName(RenameOption.INVISIBLE, index);
+            assertTrue(Character.isJavaIdentifierStart(name.charAt(0)), name);
+            name.chars().forEach(c -> assertTrue(Character.isJavaIdentifierPart(c) && c >= '\u3050' && c <= '\u3096', name));
+        }
+    }
+
+    @Test
+    void largeIndexes() {
+        final String name = NameGenerator.getName(RenameOption.ALPHABET, Long.MAX_VALUE);
+        assertNotEquals(NameGenerator.getName(RenameOption.ALPHABET, Long.MAX_VALUE - 1), name);
+        assertEquals(63, NameGenerator.getName(RenameOption.IlIlIlIlIl, Long.MAX_VALUE).length());
+    }
+
+    @Test
+    void rejectsInvalidInput() {
+        assertThrows(IllegalArgumentException.class, () -> NameGenerator.getName(RenameOption.ALPHABET, -1));
+        assertThrows(IllegalArgumentException.class, () -> NameGenerator.getName(RenameOption.OFF, 0));
+    }
+}
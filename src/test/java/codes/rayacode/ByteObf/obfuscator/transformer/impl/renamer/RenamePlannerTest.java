@@ -0,0 +1,245 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package codes.rayacode.ByteObf.obfuscator.transformer.impl.renamer;
+
+import codes.rayacode.ByteObf.obfuscator.TestByteObf;
+import codes.rayacode.ByteObf.obfuscator.hierarchy.ClassIndex;
+import codes.rayacode.ByteObf.obfuscator.hierarchy.LibraryIndex;
+import codes.rayacode.ByteObf.obfuscator.transformer.RenameMap;
+import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfConfig;
+import codes.rayacode.ByteObf.obfuscator.utils.model.ByteObfConfig.ByteObfOptions.RenameOption;
+import codes.rayacode.ByteObf.obfuscator.utils.model.ClassWrapper;
+import codes.rayacode.ByteObf.obfuscator.utils.model.SymbolTable;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RenamePlannerTest implements Opcodes {
+
+    private final SymbolTable symbols = new SymbolTable();
+    private final List<ClassNode> classNodes = new ArrayList<>();
+
+    @Test
+    void overridesAcrossInterfacesShareAName() {
+        this.define(ACC_INTERFACE | ACC_ABSTRACT, "I", "java/lang/Object").method(ACC_PUBLIC | ACC_ABSTRACT, "m", "()V");
+        this.define(ACC_INTERFACE | ACC_ABSTRACT, "J", "java/lang/Object").method(ACC_PUBLIC | ACC_ABSTRACT, "m", "()V");
+        this.define(ACC_PUBLIC, "C", "java/lang/Object", "I", "J").method(ACC_PUBLIC, "m", "()V");
+        this.define(ACC_PUBLIC, "D", "java/lang/Object").method(ACC_PUBLIC, "m", "()V");
+
+        final RenameMap map = this.planMethods(null, false);
+        final String name = map.mapMethodName("C", "m", "()V");
+        assertNotEquals("m", name);
+        assertEquals(name, map.mapMethodName("I", "m", "()V"));
+        assertEquals(name, map.mapMethodName("J", "m", "()V"));
+        // An unrelated method with the same signature is planned on its own
+        assertNotEquals(name, map.mapMethodName("D", "m", "()V"));
+    }
+
+    @Test
+    void methodsThatMeetInASubclassShareAName() {
+        // B implements I.m with the method it inherits from A, which doesn't know about I
+        this.define(ACC_PUBLIC, "A", "java/lang/Object").method(ACC_PUBLIC, "m", "()V");
+        this.define(ACC_INTERFACE | ACC_ABSTRACT, "I", "java/lang/Object").method(ACC_PUBLIC | ACC_ABSTRACT, "m", "()V");
+        this.define(ACC_PUBLIC, "B", "A", "I");
+        this.define(ACC_PUBLIC, "C", "B");
+
+        final RenameMap map = this.planMethods(null, false);
+        final String name = map.mapMethodName("A", "m", "()V");
+        assertNotEquals("m", name);
+        assertEquals(name, map.mapMethodName("I", "m", "()V"));
+        // References through subclasses are renamed too
+        assertEquals(name, map.mapMethodName("B", "m", "()V"));
+        assertEquals(name, map.mapMethodName("C", "m", "()V"));
+    }
+
+    @Test
+    void libraryMethodsKeepTheirNames() {
+        this.define(ACC_PUBLIC, "R", "java/lang/Object", "java/lang/Runnable")
+                .method(ACC_PUBLIC, "run", "()V")
+                .method(ACC_PUBLIC, "toString", "()Ljava/lang/String;")
+                .method(ACC_PUBLIC, "helper", "()V");
+        this.define(ACC_PUBLIC, "S", "R").method(ACC_PUBLIC, "run", "()V");
+
+        final RenameMap map = this.planMethods(runtimeLibraries(), false);
+        assertEquals("run", map.mapMethodName("R", "run", "()V"));
+        assertEquals("run", map.mapMethodName("S", "run", "()V"));
+        assertEquals("toString", map.mapMethodName("R", "toString", "()Ljava/lang/String;"));
+        assertNotEquals("helper", map.mapMethodName("R", "helper", "()V"));
+    }
+
+    @Test
+    void methodsThatMayOverrideUnknownSupertypesKeepTheirNames() {
+        this.define(ACC_PUBLIC, "X", "missing/Base")
+                .method(ACC_PUBLIC, "m", "()V")
+                .method(ACC_PUBLIC | ACC_STATIC, "s", "()V")
+                .method(ACC_PRIVATE, "p", "()V");
+        this.define(ACC_PUBLIC, "Y", "X").method(ACC_PUBLIC, "n", "()V");
+
+        final RenameMap map = this.planMethods(runtimeLibraries(), false);
+        assertEquals("m", map.mapMethodName("X", "m", "()V"));
+        assertEquals("n", map.mapMethodName("Y", "n", "()V"));
+        assertNotEquals("s", map.mapMethodName("X", "s", "()V"));
+        assertNotEquals("p", map.mapMethodName("X", "p", "()V"));
+    }
+
+    @Test
+    void privateMethodsAreNotOverridden() {
+        this.define(ACC_PUBLIC, "A", "java/lang/Object").method(ACC_PRIVATE, "m", "()V");
+        this.define(ACC_PUBLIC, "B", "A").method(ACC_PUBLIC, "m", "()V");
+        this.define(ACC_PUBLIC, "C", "B").method(ACC_PUBLIC, "m", "()V");
+
+        for (boolean reuse : new boolean[] { false, true }) {
+            final RenameMap map = this.planMethods(null, reuse);
+            final String privateName = map.mapMethodName("A", "m", "()V");
+            final String name = map.mapMethodName("B", "m", "()V");
+            assertNotEquals("m", privateName);
+            assertNotEquals("m", name);
+            assertEquals(name, map.mapMethodName("C", "m", "()V"));
+            // The private method still gets in the way of method selection in the subclasses
+            assertNotEquals(privateName, name);
+        }
+    }
+
+    @Test
+    void staticMethodsHideInsteadOfOverriding() {
+        this.define(ACC_PUBLIC, "A", "java/lang/Object").method(ACC_PUBLIC | ACC_STATIC, "s", "()V");
+        this.define(ACC_PUBLIC, "B", "A").method(ACC_PUBLIC | ACC_STATIC, "s", "()V");
+        this.define(ACC_PUBLIC, "C", "B");
+
+        // Renamed on their own, so the names only match where they can be reused
+        final RenameMap map = this.planMethods(null, false);
+        final String name = map.mapMethodName("B", "s", "()V");
+        assertNotEquals(map.mapMethodName("A", "s", "()V"), name);
+        assertEquals(name, map.mapMethodName("C", "s", "()V"));
+    }
+
+    @Test
+    void namesAreReusedWhereTheyDontMeet() {
+        this.define(ACC_PUBLIC, "P", "java/lang/Object").method(ACC_PUBLIC, "a", "()V").method(ACC_PUBLIC, "b", "(I)V");
+        this.define(ACC_PUBLIC, "Q", "java/lang/Object").method(ACC_PUBLIC, "c", "()V").method(ACC_PUBLIC, "d", "()V");
+
+        // Different descriptors and unrelated classes can share a name, two methods of one descriptor in a class can't
+        final RenameMap reused = this.planMethods(null, true);
+        assertEquals(List.of("A", "A", "A", "B"), List.of(reused.mapMethodName("P", "a", "()V"), reused.mapMethodName("P", "b", "(I)V"),
+                reused.mapMethodName("Q", "c", "()V"), reused.mapMethodName("Q", "d", "()V")));
+
+        final RenameMap unique = this.planMethods(null, false);
+        assertEquals(List.of("A", "B", "C", "D"), List.of(unique.mapMethodName("P", "a", "()V"), unique.mapMethodName("P", "b", "(I)V"),
+                unique.mapMethodName("Q", "c", "()V"), unique.mapMethodName("Q", "d", "()V")));
+    }
+
+    @Test
+    void lockedMethodsKeepTheirNames() {
+        this.define(ACC_PUBLIC, "Main", "java/lang/Object")
+                .method(ACC_PUBLIC, "<init>", "()V")
+                .method(ACC_PUBLIC | ACC_STATIC, "main", "([Ljava/lang/String;)V")
+                .method(ACC_PUBLIC, "m", "()V");
+        this.define(ACC_PUBLIC, "Kept", "java/lang/Object").method(ACC_PUBLIC, "m", "()V");
+        this.define(ACC_PUBLIC, "Sub", "Kept").method(ACC_PUBLIC, "m", "()V");
+
+        final List<ClassWrapper> classWrappers = this.wrap();
+        final RenamePlanner planner = RenamePlanner.planMethods(new ClassIndex(classWrappers), null, classWrappers,
+                classWrapper -> classWrapper.getName().equals("Kept"), (owner, name, descriptor) -> name.equals("main"), 2);
+        final RenameMap map = this.assignNames(planner, true);
+        assertEquals("<init>", map.mapMethodName("Main", "<init>", "()V"));
+        assertEquals("main", map.mapMethodName("Main", "main", "([Ljava/lang/String;)V"));
+        assertNotEquals("m", map.mapMethodName("Main", "m", "()V"));
+        // Overrides of a locked method are locked with it
+        assertEquals("m", map.mapMethodName("Kept", "m", "()V"));
+        assertEquals("m", map.mapMethodName("Sub", "m", "()V"));
+    }
+
+    @Test
+    void fieldsResolveLikeTheJvm() {
+        this.define(ACC_PUBLIC, "A", "java/lang/Object").field("x").field("y");
+        this.define(ACC_PUBLIC, "B", "A");
+        this.define(ACC_PUBLIC, "C", "B").field("x");
+
+        final List<ClassWrapper> classWrappers = this.wrap();
+        final RenamePlanner planner = RenamePlanner.planFields(new ClassIndex(classWrappers), null, classWrappers,
+                classWrapper -> false, (owner, name, descriptor) -> false, 2);
+        final RenameMap map = this.assignNames(planner, false);
+        final String x = map.mapFieldName("A", "x", "I");
+        assertNotEquals("x", x);
+        assertEquals(x, map.mapFieldName("B", "x", "I"));
+        // C declares its own x, which hides the one of A
+        assertNotEquals(x, map.mapFieldName("C", "x", "I"));
+        assertEquals(map.mapFieldName("A", "y", "I"), map.mapFieldName("C", "y", "I"));
+    }
+
+    private RenameMap planMethods(LibraryIndex libraryIndex, boolean reuse) {
+        final List<ClassWrapper> classWrappers = this.wrap();
+        final RenamePlanner planner = RenamePlanner.planMethods(new ClassIndex(classWrappers), libraryIndex, classWrappers,
+                classWrapper -> false, (owner, name, descriptor) -> false, 2);
+        return this.assignNames(planner, reuse);
+    }
+
+    private RenameMap assignNames(RenamePlanner planner, boolean reuse) {
+        final RenameMap map = new RenameMap(this.symbols);
+        planner.assignNames(index -> NameGenerator.getName(RenameOption.ALPHABET, index), reuse, map);
+        return map;
+    }
+
+    /**
+     * @return index of the classes of the running Java runtime, without any libraries
+     */
+    private static LibraryIndex runtimeLibraries() {
+        final var performanceOptions = new ByteObfConfig.PerformanceOptions(ByteObfConfig.PerformanceOptions.InputMode.PARALLEL,
+                1, null, 0, false, 0L, 0, 0, true);
+        final ByteObfConfig config = new ByteObfConfig("input.jar", "output.jar", null, List.of(), null, performanceOptions);
+        return LibraryIndex.load(new TestByteObf(config));
+    }
+
+    private ClassBuilder define(int access, String name, String superName, String... interfaces) {
+        final ClassNode classNode = new ClassNode();
+        classNode.visit(V17, access, name, null, superName, interfaces);
+        this.classNodes.add(classNode);
+        return new ClassBuilder(classNode);
+    }
+
+    /**
+     * @return the defined classes in definition order, as they are read from the input
+     */
+    private List<ClassWrapper> wrap() {
+        final List<ClassWrapper> classWrappers = new ArrayList<>();
+        for (ClassNode classNode : this.classNodes) {
+            final ClassWriter classWriter = new ClassWriter(0);
+            classNode.accept(classWriter);
+            classWrappers.add(new ClassWrapper(this.symbols, classWriter.toByteArray()));
+        }
+        return classWrappers;
+    }
+
+    private record ClassBuilder(ClassNode classNode) {
+        ClassBuilder method(int access, String name, String descriptor) {
+            this.classNode.visitMethod(access, name, descriptor, null, null).visitEnd();
+            return this;
+        }
+
+        ClassBuilder field(String name) {
+            this.classNode.visitField(ACC_PUBLIC, name, "I", null, null).visitEnd();
+            return this;
+        }
+    }
+}
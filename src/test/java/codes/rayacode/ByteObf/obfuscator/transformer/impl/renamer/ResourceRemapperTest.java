@@ -0,0 +1,130 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package codes.rayacode.ByteObf.obfuscator.transformer.impl.renamer;
+
+import codes.rayacode.ByteObf.obfuscator.utils.model.ResourceWrapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourceRemapperTest {
+
+    private final ResourceRemapper remapper = new ResourceRemapper(Map.of(
+            "a/B", "q/R",
+            "a/B/C", "q/S",
+            "a/Service", "q/T",
+            "a/Impl", "q/U",
+            "com/example/a/really/long/package/name/that/does/not/fit/on/one/line/Main", "q/M"));
+
+    @Test
+    void replacesWholeNamesOnly() {
+        assertEquals("q.R q.S (q.R) q.R.", this.remap("a.B a.B.C (a.B) a.B."));
+        // Part of a longer name, a package or a nested class name
+        assertNull(this.remapper.remap(bytes("x.a.B a.Bc a.B$Inner _a.B a.B_")));
+        assertEquals("x.a.B q.R", this.remap("x.a.B a.B"));
+    }
+
+    @Test
+    void longerNamesWinOverTheNamesTheyContain() {
+        // a.B.C starts with a.B, the longer match replaces the shorter one that ends first
+        assertEquals("q.S", this.remap("a.B.C"));
+        assertEquals("q.S.D", this.remap("a.B.C.D"));
+        assertEquals("q.S,q.R,q.S", this.remap("a.B.C,a.B,a.B.C"));
+    }
+
+    @Test
+    void renamesServiceFilesAndTheirImplementations() {
+        final ResourceWrapper renamed = resource("META-INF/services/a.Service", "# Provided by a.Impl\na.Impl\n");
+        this.remapper.remap(renamed);
+        assertEquals("META-INF/services/q.T", renamed.getZipEntry().getName());
+        assertEquals("# Provided by q.U\nq.U\n", new String(renamed.getBytes(), StandardCharsets.UTF_8));
+
+        // Services of other jars keep their file name
+        final ResourceWrapper kept = resource("META-INF/services/java.sql.Driver", "a.Impl\n");
+        this.remapper.remap(kept);
+        assertEquals("META-INF/services/java.sql.Driver", kept.getZipEntry().getName());
+        assertEquals("q.U\n", new String(kept.getBytes(), StandardCharsets.UTF_8));
+        assertEquals(ResourceRemapper.ResourceType.TEXT, ResourceRemapper.getType(resource("META-INF/services/nested/a.Service", "")));
+    }
+
+    @Test
+    void rewritesWrappedManifestLines() throws IOException {
+        final String mainClass = "com.example.a.really.long.package.name.that.does.not.fit.on.one.line.Main";
+        final Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, mainClass);
+        manifest.getMainAttributes().putValue("Launcher-Agent-Class", "a.B");
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        manifest.write(out);
+        // The name is split over two lines in the file, so it can't be found in the bytes
+        assertFalse(out.toString(StandardCharsets.UTF_8).contains(mainClass));
+
+        final ResourceWrapper resource = new ResourceWrapper(new ZipEntry("META-INF/MANIFEST.MF"), out.toByteArray());
+        assertEquals(ResourceRemapper.ResourceType.MANIFEST, ResourceRemapper.getType(resource));
+        this.remapper.remap(resource);
+        final Attributes attributes = new Manifest(new ByteArrayInputStream(resource.getBytes())).getMainAttributes();
+        assertEquals("q.M", attributes.getValue(Attributes.Name.MAIN_CLASS));
+        assertEquals("q.R", attributes.getValue("Launcher-Agent-Class"));
+        assertEquals("1.0", attributes.getValue(Attributes.Name.MANIFEST_VERSION));
+        new String(resource.getBytes(), StandardCharsets.UTF_8).lines().forEach(line -> assertTrue(line.length() <= 72, line));
+    }
+
+    @Test
+    void keepsTheBytesAroundNamesInTextThatIsNotAscii() {
+        for (Charset charset : new Charset[] { StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1 }) {
+            final byte[] remapped = this.remapper.remap("Größe: a.B, é a.B.C ü".getBytes(charset));
+            assertEquals("Größe: q.R, é q.S ü", new String(remapped, charset));
+        }
+        // Any byte of a multibyte character is part of the name next to it
+        assertNull(this.remapper.remap("éa.B a.Bü".getBytes(StandardCharsets.UTF_8)));
+
+        // UTF-16 has NUL bytes and is left alone
+        final ResourceWrapper utf16 = resource("names.txt", "a.B", StandardCharsets.UTF_16LE);
+        assertEquals(ResourceRemapper.ResourceType.BINARY, ResourceRemapper.getType(utf16));
+        this.remapper.remap(utf16);
+        assertEquals("a.B", new String(utf16.getBytes(), StandardCharsets.UTF_16LE));
+    }
+
+    private String remap(String text) {
+        final byte[] remapped = this.remapper.remap(bytes(text));
+        return remapped == null ? null : new String(remapped, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static ResourceWrapper resource(String name, String text) {
+        return resource(name, text, StandardCharsets.UTF_8);
+    }
+
+    private static ResourceWrapper resource(String name, String text, Charset charset) {
+        return new ResourceWrapper(new ZipEntry(name), text.getBytes(charset));
+    }
+}
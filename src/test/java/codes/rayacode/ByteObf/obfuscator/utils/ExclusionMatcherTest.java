@@ -0,0 +1,127 @@
+/*  ByteObf: A Java Bytecode Obfuscator
+ *  Copyright (C) 2025 Mohammad Ali Solhjoo mohammadalisolhjoo@live.com
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package codes.rayacode.ByteObf.obfuscator.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExclusionMatcherTest {
+
+    @Test
+    void emptyTextExcludesNothing() {
+        for (String exclude : new String[] { null, "", "  \n\n" }) {
+            final ExclusionMatcher matcher = ExclusionMatcher.compile(exclude);
+            assertFalse(matcher.isExcluded(null, "a/B"));
+            assertFalse(matcher.hasExcludedMembers(null, "a/B"));
+        }
+    }
+
+    @Test
+    void classNamesMatchExactly() {
+        final ExclusionMatcher matcher = ExclusionMatcher.compile("com.example.Main");
+        assertTrue(matcher.isExcluded(null, "com/example/Main"));
+        assertTrue(matcher.isExcluded(null, "com.example.Main"));
+        assertFalse(matcher.isExcluded(null, "com/example/Main2"));
+        assertFalse(matcher.isExcluded(null, "com/example/Main$Inner"));
+        assertFalse(matcher.isExcluded(null, "com/example"));
+        // The class rule doesn't name a member
+        assertFalse(matcher.isExcluded(null, "com/example/Main", "main", "([Ljava/lang/String;)V"));
+    }
+
+    @Test
+    void packageRulesMatchEverythingBelow() {
+        final ExclusionMatcher matcher = ExclusionMatcher.compile("com/example/**");
+        assertTrue(matcher.isExcluded(null, "com/example/Main"));
+        assertTrue(matcher.isExcluded(null, "com/example/a/b/C"));
+        assertTrue(matcher.isExcluded(null, "com/example/Main", "field", null));
+        assertFalse(matcher.isExcluded(null, "com/examples/Main"));
+        assertFalse(matcher.isExcluded(null, "com/Main"));
+    }
+
+    @Test
+    void memberRules() {
+        final ExclusionMatcher matcher = ExclusionMatcher.compile("a.B.secret\na.B.run(Ljava/lang/String;)V");
+        assertTrue(matcher.isExcluded(null, "a/B", "secret", null));
+        assertTrue(matcher.isExcluded(null, "a.B.secret"));
+        assertTrue(matcher.isExcluded(null, "a/B", "run", "(Ljava/lang/String;)V"));
+        assertFalse(matcher.isExcluded(null, "a/B", "run", "(I)V"));
+        assertFalse(matcher.isExcluded(null, "a/B"));
+        assertFalse(matcher.isExcluded(null, "a/C", "secret", null));
+
+        assertTrue(matcher.hasExcludedMembers(null, "a/B"));
+        assertFalse(matcher.hasExcludedMembers(null, "a/C"));
+    }
+
+    @Test
+    void wildcards() {
+        final ExclusionMatcher matcher = ExclusionMatcher.compile("com.*.Main\norg.**.Util\nx.Y?\na.B.get*");
+        assertTrue(matcher.isExcluded(null, "com/x/Main"));
+        assertFalse(matcher.isExcluded(null, "com/x/y/Main"));
+        assertTrue(matcher.isExcluded(null, "org/a/Util"));
+        assertTrue(matcher.isExcluded(null, "org/a/b/Util"));
+        assertTrue(matcher.isExcluded(null, "x/Y1"));
+        assertFalse(matcher.isExcluded(null, "x/Y12"));
+        assertFalse(matcher.isExcluded(null, "x/Y"));
+        assertTrue(matcher.isExcluded(null, "a/B", "getValue", "()I"));
+        assertFalse(matcher.isExcluded(null, "a/B", "setValue", "(I)V"));
+
+        assertTrue(matcher.hasExcludedMembers(null, "a/B"));
+        assertFalse(matcher.hasExcludedMembers(null, "a/C"));
+    }
+
+    @Test
+    void wildcardMemberRulesAreFoundUnderTheirClasses() {
+        final ExclusionMatcher matcher = ExclusionMatcher.compile("com.*.Foo.bar\n*.secret\nLine numbers: org.*.Main.run");
+        assertFalse(matcher.isExcluded(null, "com/x/Foo"));
+        assertTrue(matcher.isExcluded(null, "com/x/Foo", "bar", null));
+        assertTrue(matcher.hasExcludedMembers(null, "com/x/Foo"));
+        assertTrue(matcher.hasExcludedMembers(null, "com.y.Foo"));
+        assertFalse(matcher.hasExcludedMembers(null, "com/x/y/Foo"));
+
+        // * stays within a name segment, so *.secret only matches members of classes in the default package
+        assertTrue(matcher.isExcluded(null, "Foo", "secret", null));
+        assertTrue(matcher.hasExcludedMembers(null, "Foo"));
+        assertFalse(matcher.isExcluded(null, "com/x/Bar", "secret", null));
+        assertFalse(matcher.hasExcludedMembers(null, "com/x/Bar"));
+
+        assertTrue(matcher.hasExcludedMembers("Line numbers", "org/a/Main"));
+        assertFalse(matcher.hasExcludedMembers("Constant obfuscation", "org/a/Main"));
+
+        // ** can run over the class name into a member
+        final ExclusionMatcher anywhere = ExclusionMatcher.compile("**.secret");
+        assertTrue(anywhere.isExcluded(null, "com/x/Foo", "secret", null));
+        assertTrue(anywhere.hasExcludedMembers(null, "com/x/Foo"));
+    }
+
+    @Test
+    void transformerRulesOnlyApplyToTheirTransformer() {
+        final ExclusionMatcher matcher = ExclusionMatcher.compile("Line numbers: com.example.**\nLine numbers:a.B.m\nlib.**");
+        assertTrue(matcher.isExcluded("Line numbers", "com/example/Main"));
+        assertFalse(matcher.isExcluded("Constant obfuscation", "com/example/Main"));
+        assertFalse(matcher.isExcluded(null, "com/example/Main"));
+        assertTrue(matcher.isExcluded("Line numbers", "a/B", "m", null));
+        assertTrue(matcher.hasExcludedMembers("Line numbers", "a/B"));
+        assertFalse(matcher.hasExcludedMembers("Constant obfuscation", "a/B"));
+
+        // Rules without a transformer apply to all of them
+        assertTrue(matcher.isExcluded("Line numbers", "lib/A"));
+        assertTrue(matcher.isExcluded("Constant obfuscation", "lib/A"));
+        assertTrue(matcher.isExcluded(null, "lib/A"));
+    }
+}